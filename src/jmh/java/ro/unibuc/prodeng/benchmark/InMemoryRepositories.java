@@ -0,0 +1,56 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.UserRepository;
+
+/**
+ * Map-backed stand-ins for the Mongo repositories, so benchmarks measure the service and mapping
+ * code rather than the database. Only the methods used by the benchmarked paths are implemented.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static UserRepository userRepository(Map<String, UserEntity> usersById) {
+        return proxy(UserRepository.class, (method, args) -> switch (method) {
+            case "findById" -> Optional.ofNullable(usersById.get((String) args[0]));
+            case "findAllById" -> ((Collection<?>) args[0]).stream()
+                    .map(usersById::get)
+                    .filter(user -> user != null)
+                    .toList();
+            case "findByEmail" -> usersById.values().stream()
+                    .filter(user -> user.email().equals(args[0]))
+                    .findFirst();
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    static TodoRepository todoRepository(Map<String, TodoEntity> todosById, Map<String, List<TodoEntity>> todosByAssignee) {
+        return proxy(TodoRepository.class, (method, args) -> switch (method) {
+            case "findById" -> Optional.ofNullable(todosById.get((String) args[0]));
+            case "findByAssignedUserId" -> todosByAssignee.getOrDefault((String) args[0], List.of());
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "InMemory" + type.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> handler.apply(method.getName(), args);
+                });
+    }
+}
@@ -0,0 +1,94 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.response.UserResponse;
+
+/**
+ * Jackson serialization of response lists in each format the API negotiates, with object mappers configured the
+ * way Spring Boot configures them. The gzip benchmark adds the cost of response compression; the payload sizes,
+ * raw and gzipped, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter writer;
+    private List<TodoResponse> todos;
+    private List<UserResponse> users;
+
+    @Setup
+    public void setUp() throws IOException {
+        writer = mapper(format).writer();
+        todos = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String id = String.format("%024x", i);
+            todos.add(new TodoResponse(id, "Take the ring to Mordor, step " + i, i % 2 == 0,
+                    "Frodo Baggins", "frodo@theshire.me"));
+            users.add(new UserResponse(id, "Hobbit " + i, "hobbit" + i + "@theshire.me"));
+        }
+        System.out.printf("%n%s payload of %d todos: %d bytes, %d gzipped%n",
+                format, size, todoResponses().length, todoResponsesGzipped().length);
+    }
+
+    @Benchmark
+    public byte[] todoResponses() throws JsonProcessingException {
+        return writer.writeValueAsBytes(todos);
+    }
+
+    @Benchmark
+    public byte[] userResponses() throws JsonProcessingException {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] todoResponsesGzipped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            writer.writeValue(gzip, todos);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ObjectMapper mapper(String format) {
+        return switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+    }
+}
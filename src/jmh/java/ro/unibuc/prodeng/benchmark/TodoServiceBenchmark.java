@@ -0,0 +1,128 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import ro.unibuc.prodeng.cache.EmailBloomFilter;
+import ro.unibuc.prodeng.cache.MissingTodoCache;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.cache.UserCache;
+import ro.unibuc.prodeng.cascade.UserDeletionJobs;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.ErrorBodies;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.service.TodoService;
+import ro.unibuc.prodeng.service.UserService;
+import ro.unibuc.prodeng.sharding.TodoSharding;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
+import ro.unibuc.prodeng.writebehind.DoneWriteBehind;
+
+/**
+ * Service-level read paths (entity lookup, assignee resolution and response mapping) over in-memory repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoServiceBenchmark {
+
+    private static final String EMAIL = "frodo@theshire.me";
+
+    @Param({"10", "1000"})
+    private int todosPerUser;
+
+    private TodoService todoService;
+
+    @Setup
+    public void setUp() {
+        UserEntity frodo = new UserEntity("u1", "Frodo Baggins", EMAIL);
+        Map<String, TodoEntity> todosById = new HashMap<>();
+        List<TodoEntity> todos = new ArrayList<>();
+        for (int i = 0; i < todosPerUser; i++) {
+            TodoEntity todo = new TodoEntity("t" + i, "Take the ring to Mordor, step " + i, i % 2 == 0, frodo.id());
+            todosById.put(todo.id(), todo);
+            todos.add(todo);
+        }
+
+        TodoRepository todoRepository = InMemoryRepositories.todoRepository(todosById, Map.of(frodo.id(), todos));
+        MissingTodoCache missingTodoCache =
+                new MissingTodoCache(true, 10_000, Duration.ofMinutes(10), true, new SimpleMeterRegistry());
+        TodoStatsCache todoStatsCache = new TodoStatsCache(false, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+        DoneWriteBehind doneWriteBehind =
+                new DoneWriteBehind(false, 0, 0, Duration.ZERO, null, null, new SimpleMeterRegistry());
+
+        // The services are autowired by a bare bean factory, which never starts the lifecycle beans
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        AutowiredAnnotationBeanPostProcessor autowiring = new AutowiredAnnotationBeanPostProcessor();
+        autowiring.setBeanFactory(beans);
+        beans.addBeanPostProcessor(autowiring);
+        beans.registerSingleton("userRepository", InMemoryRepositories.userRepository(Map.of(frodo.id(), frodo)));
+        beans.registerSingleton("todoRepository", todoRepository);
+        beans.registerSingleton("userCache", new UserCache(10_000, Duration.ofMinutes(10), new SimpleMeterRegistry()));
+        beans.registerSingleton("emailFilter", new EmailBloomFilter(true, 10_000, 0.01, new SimpleMeterRegistry()));
+        beans.registerSingleton("validator", Validation.buildDefaultValidatorFactory().getValidator());
+        beans.registerSingleton("missingTodoCache", missingTodoCache);
+        beans.registerSingleton("assigneeSnapshots",
+                new AssigneeSnapshots(false, false, null, null, new SimpleMeterRegistry()));
+        beans.registerSingleton("todoStatsCache", todoStatsCache);
+        beans.registerSingleton("doneWriteBehind", doneWriteBehind);
+        beans.registerSingleton("todoSharding", new TodoSharding(false, null));
+        beans.registerSingleton("userDeletionJobs", new UserDeletionJobs(1000, 100, todoRepository, todoStatsCache,
+                doneWriteBehind, missingTodoCache, new SimpleMeterRegistry()));
+        beans.registerSingleton("userService", beans.createBean(UserService.class));
+        todoService = beans.createBean(TodoService.class);
+    }
+
+    @Benchmark
+    public List<TodoResponse> getTodosByUserEmail() {
+        return todoService.getTodosByUserEmail(EMAIL, null);
+    }
+
+    @Benchmark
+    public TodoResponse getTodoById() {
+        return todoService.getTodoById("t0");
+    }
+
+    // Polling a deleted todo: after the first miss the id is answered from the negative cache
+    @Benchmark
+    public EntityNotFoundException getTodoByIdMissing() {
+        try {
+            todoService.getTodoById("deleted");
+            throw new IllegalStateException("todo should be missing");
+        } catch (EntityNotFoundException e) {
+            return e;
+        }
+    }
+
+    // The 404 response body as written by GlobalExceptionHandler
+    @Benchmark
+    public byte[] notFoundBody() {
+        return ErrorBodies.notFound(new EntityNotFoundException("6ad319b429323d1e3ef36b9e"));
+    }
+}
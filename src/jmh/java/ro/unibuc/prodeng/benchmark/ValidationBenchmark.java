@@ -0,0 +1,53 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+
+/**
+ * Bean validation of CreateTodoRequest, for both the accepted and the rejected path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private Validator validator;
+    private CreateTodoRequest valid;
+    private CreateTodoRequest invalid;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        valid = new CreateTodoRequest("Take the ring to Mordor", "frodo@theshire.me");
+        invalid = new CreateTodoRequest("", "not-an-email");
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateTodoRequest>> validRequest() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateTodoRequest>> invalidRequest() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,68 @@
+package ro.unibuc.prodeng.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadTest.*} system properties (forwarded by the Gradle loadTest task).
+ */
+record LoadTestConfig(
+    String targetUrl,
+    String mongoUrl,
+    String profiles,
+    int ratePerSecond,
+    Duration warmup,
+    Duration duration,
+    Map<Scenario, Integer> mix,
+    int seedUsers,
+    int seedTodos,
+    int maxInFlight,
+    double maxErrorRate,
+    double maxP99Millis,
+    String reportDir
+) {
+
+    LoadTestConfig {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("loadTest.rate must be positive: " + ratePerSecond);
+        }
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                System.getProperty("loadTest.targetUrl"),
+                System.getProperty("loadTest.mongoUrl"),
+                System.getProperty("loadTest.profiles", ""),
+                Integer.getInteger("loadTest.rate", 200),
+                Duration.parse(System.getProperty("loadTest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadTest.duration", "PT60S")),
+                parseMix(System.getProperty("loadTest.mix",
+                        "createUser=1,createTodo=3,listByEmail=5,assign=1,markDone=2")),
+                Integer.getInteger("loadTest.seedUsers", 50),
+                Integer.getInteger("loadTest.seedTodos", 500),
+                Integer.getInteger("loadTest.maxInFlight", 10_000),
+                Double.parseDouble(System.getProperty("loadTest.maxErrorRate", "0.01")),
+                Double.parseDouble(System.getProperty("loadTest.maxP99Millis", "0")),
+                System.getProperty("loadTest.reportDir", "build/reports/loadtest"));
+    }
+
+    // e.g. "createUser=1,createTodo=3,listByEmail=5,assign=1,markDone=2"
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Scenario.byName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The scenario mix is empty");
+        }
+        return weights;
+    }
+}
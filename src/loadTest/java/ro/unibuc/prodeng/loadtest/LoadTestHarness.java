@@ -0,0 +1,252 @@
+package ro.unibuc.prodeng.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MongoDBContainer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ro.unibuc.prodeng.ProdEngApplication;
+
+/**
+ * Open-model HTTP load generator. Requests are issued at a fixed arrival rate regardless of how fast the
+ * service answers, and latency is measured from each request's scheduled start, so queueing inside a
+ * saturated service shows up in the percentiles instead of slowing the generator down (no coordinated omission).
+ *
+ * <p>By default the service is started in-process against a Testcontainers Mongo; {@code loadTest.targetUrl}
+ * points the harness at an already running instance instead.
+ */
+public final class LoadTestHarness {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Scenario.State state = new Scenario.State();
+    private final Map<Scenario, Histogram> histograms = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+    private final LongAdder dropped = new LongAdder();
+
+    private LoadTestHarness(LoadTestConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        for (Scenario scenario : config.mix().keySet()) {
+            histograms.put(scenario, new ConcurrentHistogram(3));
+            errors.put(scenario, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        MongoDBContainer mongo = null;
+        ConfigurableApplicationContext app = null;
+        boolean passed;
+        try {
+            String baseUrl = config.targetUrl();
+            if (baseUrl == null) {
+                String mongoUrl = config.mongoUrl();
+                if (mongoUrl == null) {
+                    mongo = new MongoDBContainer("mongo:6.0.20");
+                    mongo.start();
+                    mongoUrl = mongo.getConnectionString();
+                }
+                app = new SpringApplicationBuilder(ProdEngApplication.class)
+                        .profiles(config.profiles().isBlank() ? new String[0] : config.profiles().split(","))
+                        .properties("server.port=0", "mongodb.connection.url=" + mongoUrl)
+                        .run();
+                baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+            }
+
+            LoadTestHarness harness = new LoadTestHarness(config, baseUrl);
+            harness.seed();
+            double elapsedSeconds = harness.run();
+            passed = harness.report(elapsedSeconds, System.out);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (mongo != null) {
+                mongo.stop();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    // Creates the users and todos the mixed scenarios pick from, the latter through the bulk endpoint
+    private void seed() throws IOException, InterruptedException {
+        List<String> emails = new ArrayList<>();
+        String prefix = "seed-" + System.currentTimeMillis();
+        for (int i = 0; i < config.seedUsers(); i++) {
+            String email = prefix + "-" + i + "@example.com";
+            send("/api/users", "POST", "{\"name\":\"Seed User " + i + "\",\"email\":\"" + email + "\"}");
+            emails.add(email);
+        }
+        state.addEmails(emails);
+
+        List<Map<String, String>> todos = new ArrayList<>();
+        for (int i = 0; i < config.seedTodos(); i++) {
+            todos.add(Map.of("description", "Seed todo " + i, "assigneeEmail", state.randomEmail()));
+        }
+        JsonNode created = objectMapper.readTree(
+                send("/api/todos/bulk", "POST", objectMapper.writeValueAsString(todos)));
+        List<String> ids = new ArrayList<>();
+        created.get("results").forEach(result -> {
+            if (result.get("created").asBoolean()) {
+                ids.add(result.get("id").asText());
+            }
+        });
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Seeding created no todos: " + created);
+        }
+        state.addTodoIds(ids);
+    }
+
+    private String send(String path, String method, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(method + " " + path + " failed: " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    /**
+     * Issues requests at the configured rate for warmup + duration and returns the measured seconds.
+     * Requests scheduled during warmup are sent but not recorded.
+     */
+    private double run() throws InterruptedException {
+        Scenario[] weighted = weightedScenarios();
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.ratePerSecond();
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = scheduled >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                // The client itself is saturated; count it rather than silently stretching the schedule
+                if (measured) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            Scenario scenario = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+            client.sendAsync(scenario.request(baseUrl, state), BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        inFlight.release();
+                        if (!measured) {
+                            return;
+                        }
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+                        histograms.get(scenario).recordValue(latencyMicros);
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.get(scenario).increment();
+                        }
+                    });
+        }
+        long dispatchEnd = System.nanoTime();
+        // Let in-flight requests finish so their latencies are recorded
+        inFlight.tryAcquire(config.maxInFlight(), 30, TimeUnit.SECONDS);
+        return (dispatchEnd - measureFrom) / 1e9;
+    }
+
+    private Scenario[] weightedScenarios() {
+        List<Scenario> weighted = new ArrayList<>();
+        config.mix().forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+        return weighted.toArray(new Scenario[0]);
+    }
+
+    private boolean report(double elapsedSeconds, PrintStream out) throws IOException {
+        Path reportDir = Path.of(config.reportDir());
+        Files.createDirectories(reportDir);
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+
+        out.printf("%nTarget rate %d req/s, measured %.1f s%n", config.ratePerSecond(), elapsedSeconds);
+        out.printf("%-12s %9s %7s %10s %10s %10s %10s%n", "scenario", "requests", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Scenario, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long scenarioErrors = errors.get(entry.getKey()).sum();
+            print(out, entry.getKey().displayName(), histogram, scenarioErrors);
+            total.add(histogram);
+            totalErrors += scenarioErrors;
+            writeDistribution(reportDir.resolve(entry.getKey().displayName() + ".hgrm"), histogram);
+        }
+        print(out, "all", total, totalErrors);
+        writeDistribution(reportDir.resolve("all.hgrm"), total);
+
+        long requests = total.getTotalCount();
+        double errorRate = requests == 0 ? 1.0 : (double) (totalErrors + dropped.sum()) / (requests + dropped.sum());
+        double p99Millis = total.getValueAtPercentile(99) / 1000.0;
+        out.printf("Achieved throughput %.1f req/s, dropped by client %d, error rate %.4f%n",
+                requests / elapsedSeconds, dropped.sum(), errorRate);
+        out.printf("HDR percentile distributions written to %s%n", reportDir.toAbsolutePath());
+
+        boolean passed = errorRate <= config.maxErrorRate()
+                && (config.maxP99Millis() <= 0 || p99Millis <= config.maxP99Millis());
+        if (!passed) {
+            out.printf("FAILED: error rate limit %.4f, p99 limit %.1f ms%n", config.maxErrorRate(), config.maxP99Millis());
+        }
+        return passed;
+    }
+
+    private static void print(PrintStream out, String name, Histogram histogram, long errors) {
+        out.printf("%-12s %9d %7d %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(), errors,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream stream = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(stream, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ro.unibuc.prodeng.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The requests.http scenarios replayed by the harness. Each scenario builds its request from the users and
+ * todos seeded before the run.
+ */
+enum Scenario {
+
+    CREATE_USER("createUser") {
+        @Override
+        HttpRequest request(String baseUrl, State state) {
+            String email = "load-" + UUID.randomUUID() + "@example.com";
+            return json(baseUrl + "/api/users", "POST",
+                    "{\"name\":\"Load Tester\",\"email\":\"" + email + "\"}");
+        }
+    },
+
+    CREATE_TODO("createTodo") {
+        @Override
+        HttpRequest request(String baseUrl, State state) {
+            return json(baseUrl + "/api/todos", "POST",
+                    "{\"description\":\"Load test todo\",\"assigneeEmail\":\"" + state.randomEmail() + "\"}");
+        }
+    },
+
+    LIST_BY_EMAIL("listByEmail") {
+        @Override
+        HttpRequest request(String baseUrl, State state) {
+            String email = URLEncoder.encode(state.randomEmail(), StandardCharsets.UTF_8);
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/todos?assigneeEmail=" + email)).GET().build();
+        }
+    },
+
+    ASSIGN("assign") {
+        @Override
+        HttpRequest request(String baseUrl, State state) {
+            return json(baseUrl + "/api/todos/" + state.randomTodoId() + "/assignee", "PATCH",
+                    "{\"newAssigneeEmail\":\"" + state.randomEmail() + "\"}");
+        }
+    },
+
+    MARK_DONE("markDone") {
+        @Override
+        HttpRequest request(String baseUrl, State state) {
+            return json(baseUrl + "/api/todos/" + state.randomTodoId() + "/done", "PATCH",
+                    String.valueOf(ThreadLocalRandom.current().nextBoolean()));
+        }
+    };
+
+    private final String name;
+
+    Scenario(String name) {
+        this.name = name;
+    }
+
+    abstract HttpRequest request(String baseUrl, State state);
+
+    String displayName() {
+        return name;
+    }
+
+    static Scenario byName(String name) {
+        for (Scenario scenario : values()) {
+            if (scenario.name.equals(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + name);
+    }
+
+    private static HttpRequest json(String url, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(method, BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Users and todos known to exist, shared by all in-flight requests.
+     */
+    static final class State {
+
+        private final List<String> emails = new CopyOnWriteArrayList<>();
+        private final List<String> todoIds = new CopyOnWriteArrayList<>();
+
+        void addEmails(List<String> created) {
+            emails.addAll(created);
+        }
+
+        void addTodoIds(List<String> created) {
+            todoIds.addAll(created);
+        }
+
+        String randomEmail() {
+            return emails.get(ThreadLocalRandom.current().nextInt(emails.size()));
+        }
+
+        String randomTodoId() {
+            return todoIds.get(ThreadLocalRandom.current().nextInt(todoIds.size()));
+        }
+    }
+}
@@ -1,41 +1,18 @@
 package ro.unibuc.prodeng;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
-import ro.unibuc.prodeng.repository.UserRepository;
-import ro.unibuc.prodeng.request.CreateTodoRequest;
-import ro.unibuc.prodeng.request.CreateUserRequest;
-import ro.unibuc.prodeng.service.TodoService;
-import ro.unibuc.prodeng.service.UserService;
-
-import jakarta.annotation.PostConstruct;
-
 @SpringBootApplication
-@EnableMongoRepositories
+@EnableMongoRepositories(basePackages = "ro.unibuc.prodeng.repository")
 public class ProdEngApplication {
 
-	@Autowired
-	private UserService userService;
-
-	@Autowired
-	private TodoService todoService;
-
-	@Autowired
-	private UserRepository userRepository;
-
 	public static void main(String[] args) {
-		SpringApplication.run(ProdEngApplication.class, args);
-	}
-
-	@PostConstruct
-	public void runAfterObjectCreated() {
-		if (userRepository.findByEmail("frodo@theshire.me").isEmpty()) {
-			CreateUserRequest userRequest = new CreateUserRequest("Frodo Baggins", "frodo@theshire.me");
-			userService.createUser(userRequest);
-			todoService.createTodo(new CreateTodoRequest("Take the ring to Mordor", "frodo@theshire.me"));
-		}
+		SpringApplication application = new SpringApplication(ProdEngApplication.class);
+		// Records the startup steps (bean creation, context refresh, ...) served by /actuator/startup
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 }
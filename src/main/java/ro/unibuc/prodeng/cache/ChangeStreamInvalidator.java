@@ -0,0 +1,228 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.service.UserService;
+
+/**
+ * Tails a change stream over the users and todos collections and applies writes made by other replicas to the
+ * local caches: changed or deleted users are evicted from {@link UserCache}, new emails are added to
+ * {@link EmailBloomFilter} and deleted todos are recorded in {@link MissingTodoCache}.
+ *
+ * <p>When the stream is interrupted it is resumed from the last seen resume token. When it cannot be opened
+ * (e.g. Mongo is not a replica set) the caches run in TTL-only mode and the stream is retried periodically.
+ * The user cache is cleared whenever a stream starts without a usable token, since writes in the gap are unknown.
+ *
+ * <p>The email filter cannot expire entries, so it is only consulted while the stream is open: it is reloaded
+ * each time a stream opens and dropped while it is down. With change streams disabled (a single replica) it
+ * is loaded once at startup and kept current by the local write paths only.
+ */
+@Component
+public class ChangeStreamInvalidator implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamInvalidator.class);
+
+    // Server error codes meaning the stored resume token can no longer be used
+    private static final List<Integer> RESUME_FAILED_CODES = List.of(280, 286);
+
+    private static final int MODE_TTL_ONLY = 0;
+    private static final int MODE_CHANGE_STREAM = 1;
+
+    private final boolean enabled;
+    private final Duration retryInterval;
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailFilter;
+    private final MissingTodoCache missingTodoCache;
+    private final MeterRegistry meterRegistry;
+    private final String usersCollection;
+    private final String todosCollection;
+    private final AtomicInteger mode = new AtomicInteger(MODE_TTL_ONLY);
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private BsonDocument resumeToken;
+    private boolean unavailableLogged;
+
+    public ChangeStreamInvalidator(@Value("${cache.change-streams.enabled:true}") boolean enabled,
+                                   @Value("${cache.change-streams.retry-interval:PT30S}") Duration retryInterval,
+                                   MongoTemplate mongoTemplate,
+                                   UserService userService,
+                                   UserCache userCache,
+                                   EmailBloomFilter emailFilter,
+                                   MissingTodoCache missingTodoCache,
+                                   MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.retryInterval = retryInterval;
+        this.mongoTemplate = mongoTemplate;
+        this.userService = userService;
+        this.userCache = userCache;
+        this.emailFilter = emailFilter;
+        this.missingTodoCache = missingTodoCache;
+        this.meterRegistry = meterRegistry;
+        this.usersCollection = mongoTemplate.getCollectionName(UserEntity.class);
+        this.todosCollection = mongoTemplate.getCollectionName(TodoEntity.class);
+        meterRegistry.gauge("cache.coherence.mode", mode);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (enabled) {
+            worker = Thread.ofPlatform().daemon().name("cache-change-stream").start(this::run);
+        } else {
+            userService.rebuildEmailFilter();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                // Loaded after the stream opened, so no insert can fall between the scan and the stream
+                userService.rebuildEmailFilter();
+                mode.set(MODE_CHANGE_STREAM);
+                log.info("Cache coherence change stream open on {} and {}", usersCollection, todosCollection);
+                while (running) {
+                    ChangeStreamDocument<Document> event = cursor.tryNext();
+                    if (event != null) {
+                        apply(event);
+                        if (event.getOperationType() == OperationType.INVALIDATE) {
+                            // The stream is closed for good and its token cannot be resumed after
+                            resumeToken = null;
+                            break;
+                        }
+                    }
+                    // Also advances on idle batches, so a resume never replays an already applied window
+                    if (cursor.getResumeToken() != null) {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                }
+            } catch (MongoException e) {
+                boolean wasOpen = toTtlOnly();
+                if (e instanceof MongoCommandException command && RESUME_FAILED_CODES.contains(command.getErrorCode())) {
+                    resumeToken = null;
+                }
+                if (running) {
+                    // Warn on the transition only; a standalone Mongo would otherwise log on every retry
+                    if (wasOpen || !unavailableLogged) {
+                        log.warn("Cache coherence change stream unavailable, caches are TTL-only; retrying every {}: {}",
+                                retryInterval, e.getMessage());
+                        unavailableLogged = true;
+                    }
+                    sleep(retryInterval);
+                }
+            } catch (RuntimeException e) {
+                // Never let the worker die: without it caches would silently stay TTL-only
+                toTtlOnly();
+                log.error("Cache coherence change stream failed, retrying in {}", retryInterval, e);
+                sleep(retryInterval);
+            }
+        }
+        toTtlOnly();
+    }
+
+    // Returns whether the stream had been open
+    private boolean toTtlOnly() {
+        emailFilter.clear();
+        return mode.getAndSet(MODE_TTL_ONLY) == MODE_CHANGE_STREAM;
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        var stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", usersCollection, todosCollection))))
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            return stream.resumeAfter(resumeToken).cursor();
+        }
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor();
+        // Nothing is known about writes made before this point
+        userCache.invalidateAll();
+        return cursor;
+    }
+
+    private void apply(ChangeStreamDocument<Document> event) {
+        String collection = event.getNamespace() == null ? null : event.getNamespace().getCollectionName();
+        BsonValue key = event.getDocumentKey() == null ? null : event.getDocumentKey().get("_id");
+        String id = key == null ? null : key.isObjectId() ? key.asObjectId().getValue().toHexString() : key.asString().getValue();
+        apply(collection, event.getOperationType(), id, event.getFullDocument());
+    }
+
+    void apply(String collection, OperationType operation, String id, Document fullDocument) {
+        meterRegistry.counter("cache.coherence.events",
+                "collection", String.valueOf(collection), "operation", operation.getValue()).increment();
+        switch (operation) {
+            case INSERT -> {
+                if (usersCollection.equals(collection) && fullDocument != null) {
+                    emailFilter.put(fullDocument.getString("email"));
+                }
+            }
+            case UPDATE, REPLACE -> {
+                if (usersCollection.equals(collection)) {
+                    userCache.invalidate(id);
+                }
+            }
+            case DELETE -> {
+                if (usersCollection.equals(collection)) {
+                    userCache.invalidate(id);
+                } else if (todosCollection.equals(collection)) {
+                    missingTodoCache.markMissing(id);
+                }
+            }
+            // Drop, rename, dropDatabase or invalidate: individual keys are unknown
+            default -> userCache.invalidateAll();
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
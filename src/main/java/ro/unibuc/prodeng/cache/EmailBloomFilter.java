@@ -0,0 +1,152 @@
+package ro.unibuc.prodeng.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bloom filter of registered user emails: a negative answer means the email was definitely never registered,
+ * so the lookup can be answered without Mongo. Until the first {@link #rebuild} completes (and when disabled)
+ * every email is reported as possibly present.
+ *
+ * <p>Emails of deleted users cannot be removed and stay as false positives, which only cost the Mongo
+ * round trip the filter would otherwise have saved, until the next rebuild.
+ */
+@Component
+public class EmailBloomFilter {
+
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Counter definiteMisses;
+    private final Counter possibleHits;
+
+    private volatile Bits active;
+    // Filter being filled by a rebuild; concurrent puts go to both so none is lost in the swap
+    private volatile Bits building;
+
+    public EmailBloomFilter(@Value("${users.email-filter.enabled:true}") boolean enabled,
+                            @Value("${users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.definiteMisses = meterRegistry.counter("users.email_filter.lookups", "result", "definite_miss");
+        this.possibleHits = meterRegistry.counter("users.email_filter.lookups", "result", "possible_hit");
+    }
+
+    public boolean mightContain(String email) {
+        Bits bits = active;
+        if (!enabled || bits == null) {
+            return true;
+        }
+        boolean result = bits.mightContain(email);
+        (result ? possibleHits : definiteMisses).increment();
+        return result;
+    }
+
+    public void put(String email) {
+        Bits bits = active;
+        if (bits != null) {
+            bits.put(email);
+        }
+        bits = building;
+        if (bits != null) {
+            bits.put(email);
+        }
+    }
+
+    // Until the next rebuild every email is reported as possibly present
+    public void clear() {
+        active = null;
+    }
+
+    /**
+     * Replaces the filter with one built from all registered emails, sized for at least twice the
+     * current user count so the false-positive rate holds while the collection grows. The new filter takes
+     * concurrent puts before the emails are read, so a user registered while the scan is opened, and possibly
+     * missed by it, still ends up in the filter. If reading the emails fails, the current filter stays.
+     */
+    public void rebuild(long userCount, Supplier<Stream<String>> emails) {
+        if (!enabled) {
+            return;
+        }
+        Bits bits = new Bits(Math.max(expectedInsertions, 2 * userCount), falsePositiveRate);
+        building = bits;
+        try (Stream<String> stream = emails.get()) {
+            stream.forEach(bits::put);
+            active = bits;
+        } finally {
+            building = null;
+        }
+    }
+
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long numBits;
+        private final int numHashes;
+
+        Bits(long expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            // Indexes are derived from 31-bit hashes
+            this.numBits = Math.max(64, Math.min(bits, Integer.MAX_VALUE));
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((numBits + 63) / 64));
+        }
+
+        void put(String email) {
+            long hash = hash(email);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long index = index(h1 + i * h2);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String email) {
+            long hash = hash(email);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long index = index(h1 + i * h2);
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int combinedHash) {
+            return (combinedHash < 0 ? ~combinedHash : combinedHash) % numBits;
+        }
+
+        // FNV-1a over the UTF-16 chars followed by the murmur3 finalizer; two 32-bit halves drive double hashing
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
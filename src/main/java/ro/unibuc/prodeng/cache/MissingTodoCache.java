@@ -0,0 +1,79 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.ReadPreference;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ro.unibuc.prodeng.config.MongoClientProperties;
+
+/**
+ * Negative cache of todo ids recently confirmed missing, so repeated polls of deleted todos are answered
+ * without a Mongo round trip. Todo ids are always freshly generated ObjectIds, so an id that was missing
+ * (or deleted) can never come back into existence and entries need no invalidation.
+ *
+ * <p>A read that finds nothing only confirms the id is missing when it went to the primary: a secondary may not
+ * have replicated a todo created moments ago yet. With a non-primary read preference only deletes are cached.
+ */
+@Component
+public class MissingTodoCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MissingTodoCache.class);
+
+    private final boolean enabled;
+    private final boolean primaryReads;
+    private final Cache<String, Boolean> missing;
+
+    @Autowired
+    public MissingTodoCache(@Value("${todos.missing-cache.enabled:true}") boolean enabled,
+                            @Value("${todos.missing-cache.max-size:100000}") long maxSize,
+                            @Value("${todos.missing-cache.ttl:PT5M}") Duration ttl,
+                            MongoClientProperties mongoProperties,
+                            MeterRegistry meterRegistry) {
+        this(enabled, maxSize, ttl, mongoProperties.effectiveReadPreference().equals(ReadPreference.primary()),
+                meterRegistry);
+        if (enabled && !primaryReads) {
+            log.info("Reads use read preference {}; only deleted todo ids are cached as missing",
+                    mongoProperties.effectiveReadPreference().getName());
+        }
+    }
+
+    public MissingTodoCache(boolean enabled, long maxSize, Duration ttl, boolean primaryReads,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.primaryReads = primaryReads;
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, "todos.missing");
+    }
+
+    public boolean isMissing(String id) {
+        return enabled && missing.getIfPresent(id) != null;
+    }
+
+    // The todo was deleted
+    public void markMissing(String id) {
+        if (enabled) {
+            missing.put(id, Boolean.TRUE);
+        }
+    }
+
+    // A read of the todo found nothing
+    public void markNotFound(String id) {
+        if (primaryReads) {
+            markMissing(id);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ro.unibuc.prodeng.model.TodoStats;
+import ro.unibuc.prodeng.repository.TodoRepository;
+
+/**
+ * Optional in-process copy of the per-assignee todo stats, so dashboard polls page through memory instead of
+ * re-running the aggregation. Writes made through this replica mark their assignee dirty, reassignments
+ * both the previous and the new one, and only those assignees are recounted on the next read. Writes made by
+ * other replicas, and renamed assignees, are picked up by the full recount that runs once the refresh
+ * interval has passed.
+ */
+@Component
+public class TodoStatsCache {
+
+    private final boolean enabled;
+    private final long refreshIntervalNanos;
+    private final TodoRepository todoRepository;
+    private final NavigableMap<String, TodoStats> stats = new ConcurrentSkipListMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Counter fullRefreshes;
+    private final Counter partialRefreshes;
+    private volatile boolean reloadNeeded = true;
+    private long loadedAt;
+
+    public TodoStatsCache(@Value("${todos.stats-cache.enabled:false}") boolean enabled,
+                          @Value("${todos.stats-cache.refresh-interval:PT1M}") Duration refreshInterval,
+                          TodoRepository todoRepository,
+                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.todoRepository = todoRepository;
+        this.fullRefreshes = meterRegistry.counter("todos.stats_cache.refreshes", "scope", "full");
+        this.partialRefreshes = meterRegistry.counter("todos.stats_cache.refreshes", "scope", "partial");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void assigneeChanged(String assignedUserId) {
+        if (enabled) {
+            dirty.add(assignedUserId);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} rows ordered by assignee id, starting after {@code afterUserId} when it is
+     * not null, after applying any pending refresh.
+     */
+    public synchronized List<TodoStats> page(String afterUserId, int limit) {
+        refresh();
+        NavigableMap<String, TodoStats> tail = afterUserId != null ? stats.tailMap(afterUserId, false) : stats;
+        List<TodoStats> page = new ArrayList<>(Math.min(limit, tail.size()));
+        for (TodoStats row : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(row);
+        }
+        return page;
+    }
+
+    // Pending marks are cleared before querying, so a write that lands during the query is marked again
+    // and recounted by the next read rather than lost; a query that fails puts its marks back
+    private void refresh() {
+        if (reloadNeeded || System.nanoTime() - loadedAt > refreshIntervalNanos) {
+            reloadNeeded = false;
+            dirty.clear();
+            long started = System.nanoTime();
+            List<TodoStats> all;
+            try {
+                all = todoRepository.findStats(null);
+            } catch (RuntimeException e) {
+                reloadNeeded = true;
+                throw e;
+            }
+            stats.clear();
+            all.forEach(row -> stats.put(row.assignedUserId(), row));
+            loadedAt = started;
+            fullRefreshes.increment();
+            return;
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<String> assignees = new ArrayList<>();
+        for (Iterator<String> it = dirty.iterator(); it.hasNext(); ) {
+            assignees.add(it.next());
+            it.remove();
+        }
+        List<TodoStats> rows;
+        try {
+            rows = todoRepository.findStats(assignees);
+        } catch (RuntimeException e) {
+            dirty.addAll(assignees);
+            throw e;
+        }
+        // Assignees left without todos have no row and drop out of the stats
+        assignees.forEach(stats::remove);
+        rows.forEach(row -> stats.put(row.assignedUserId(), row));
+        partialRefreshes.increment();
+    }
+}
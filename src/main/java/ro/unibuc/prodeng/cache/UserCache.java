@@ -0,0 +1,96 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ro.unibuc.prodeng.model.UserEntity;
+
+/**
+ * Bounded in-process cache of users by id, with an index from email to id. An email entry only counts while the
+ * user cached under its id still has that email, so evicting or invalidating a user by id also retires its email
+ * entry without scanning the index. Entries expire after a fixed time and are kept coherent by the write paths in UserService and, for writes
+ * made by other replicas, by {@link ChangeStreamInvalidator}.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, UserEntity> byId;
+    private final Cache<String, String> idsByEmail;
+
+    public UserCache(@Value("${users.cache.max-size:10000}") long maxSize,
+                     @Value("${users.cache.ttl:PT10M}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.byId = newCache(maxSize, ttl);
+        this.idsByEmail = newCache(maxSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by_id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.by_email");
+    }
+
+    public Optional<UserEntity> getById(String id) {
+        return Optional.ofNullable(byId.getIfPresent(id));
+    }
+
+    /**
+     * Returns the cached user, or loads it with {@code loader} and caches it. The load runs inside the cache, so an
+     * invalidation of the same id that arrives meanwhile waits for it and then evicts what it loaded, rather than
+     * being overwritten by it. A loader returning null caches nothing.
+     */
+    public Optional<UserEntity> getById(String id, Function<String, UserEntity> loader) {
+        UserEntity user = byId.get(id, loader);
+        if (user != null) {
+            idsByEmail.put(user.email(), user.id());
+        }
+        return Optional.ofNullable(user);
+    }
+
+    public Optional<UserEntity> getByEmail(String email) {
+        String id = idsByEmail.getIfPresent(email);
+        UserEntity user = id == null ? null : byId.getIfPresent(id);
+        return user != null && email.equals(user.email()) ? Optional.of(user) : Optional.empty();
+    }
+
+    // Keeps the cached user if it has a higher version, so a reader that loaded the user before a write can't put
+    // the old copy back over the one the write cached
+    public void put(UserEntity user) {
+        UserEntity cached = byId.asMap().compute(user.id(), (id, current) -> isNewer(current, user) ? current : user);
+        if (cached == user) {
+            idsByEmail.put(user.email(), user.id());
+        }
+    }
+
+    // An email entry left behind by an evicted id entry resolves to nothing, so it needs no cleanup here
+    public void invalidate(String id) {
+        UserEntity cached = byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (cached != null) {
+            idsByEmail.invalidate(cached.email());
+        }
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    private static boolean isNewer(UserEntity current, UserEntity user) {
+        return current != null && current.version() != null
+                && (user.version() == null || current.version() > user.version());
+    }
+
+    private static <V> Cache<String, V> newCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package ro.unibuc.prodeng.cascade;
+
+import java.util.Locale;
+
+// What happens to the todos of a deleted user
+public enum TodoCascade {
+    DELETE,
+    REASSIGN;
+
+    public static TodoCascade fromParameter(String value) {
+        for (TodoCascade cascade : values()) {
+            if (cascade.parameter().equals(value)) {
+                return cascade;
+            }
+        }
+        throw new IllegalArgumentException("todos must be one of delete, reassign");
+    }
+
+    public String parameter() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,87 @@
+package ro.unibuc.prodeng.cascade;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.response.UserDeletionJobResponse;
+
+/**
+ * Progress of one cascading user deletion. Only the job worker updates it; readers get a consistent enough
+ * copy through {@link #toResponse()}.
+ */
+class UserDeletionJob {
+
+    enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED, INTERRUPTED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String userId;
+    private final TodoCascade cascade;
+    private final String reassignToUserId;
+    private final AssigneeSnapshot reassignToSnapshot;
+    private final Instant submittedAt = Instant.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile long todosProcessed;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    UserDeletionJob(String userId, TodoCascade cascade, String reassignToUserId, AssigneeSnapshot reassignToSnapshot) {
+        this.userId = userId;
+        this.cascade = cascade;
+        this.reassignToUserId = reassignToUserId;
+        this.reassignToSnapshot = reassignToSnapshot;
+    }
+
+    String id() {
+        return id;
+    }
+
+    String userId() {
+        return userId;
+    }
+
+    TodoCascade cascade() {
+        return cascade;
+    }
+
+    String reassignToUserId() {
+        return reassignToUserId;
+    }
+
+    AssigneeSnapshot reassignToSnapshot() {
+        return reassignToSnapshot;
+    }
+
+    Status status() {
+        return status;
+    }
+
+    void started() {
+        status = Status.RUNNING;
+    }
+
+    void processed(int todos) {
+        todosProcessed += todos;
+    }
+
+    void finished(Status status, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = status;
+    }
+
+    UserDeletionJobResponse toResponse() {
+        return new UserDeletionJobResponse(
+                id,
+                userId,
+                cascade.parameter(),
+                reassignToUserId,
+                status.name().toLowerCase(Locale.ROOT),
+                todosProcessed,
+                submittedAt,
+                finishedAt,
+                error
+        );
+    }
+}
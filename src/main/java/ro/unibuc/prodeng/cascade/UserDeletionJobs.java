@@ -0,0 +1,238 @@
+package ro.unibuc.prodeng.cascade;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ro.unibuc.prodeng.cache.MissingTodoCache;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.cascade.UserDeletionJob.Status;
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.response.UserDeletionJobResponse;
+import ro.unibuc.prodeng.writebehind.DoneWriteBehind;
+
+/**
+ * Background worker that deletes or reassigns the todos of deleted users. Jobs run one at a time on a single
+ * thread, in chunks of at most chunkSize todos, each one deleteMany or updateMany, so a user with a large
+ * backlog neither holds a request thread nor one long-running write. A failed chunk is retried before the job
+ * is given up; every chunk is safe to repeat.
+ *
+ * <p>Jobs live in memory only: a job that fails, or is cut short by a shutdown, is resumed by deleting the same
+ * user again, which is accepted for as long as todos still reference it. The most recent jobs are exposed
+ * through the {@code userdeletions} actuator endpoint.
+ */
+@Component
+public class UserDeletionJobs implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDeletionJobs.class);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final int CHUNK_ATTEMPTS = 3;
+
+    private final int chunkSize;
+    private final int retainedJobs;
+    private final TodoRepository todoRepository;
+    private final TodoStatsCache todoStatsCache;
+    private final DoneWriteBehind doneWriteBehind;
+    private final MissingTodoCache missingTodoCache;
+    private final MeterRegistry meterRegistry;
+    private final Counter deleted;
+    private final Counter reassigned;
+    private final Queue<UserDeletionJob> queued = new ConcurrentLinkedQueue<>();
+    // Most recently submitted jobs, oldest first
+    private final Map<String, UserDeletionJob> jobs = new LinkedHashMap<>();
+    private final Semaphore signal = new Semaphore(0);
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public UserDeletionJobs(@Value("${users.deletion.chunk-size:1000}") int chunkSize,
+                            @Value("${users.deletion.retained-jobs:100}") int retainedJobs,
+                            TodoRepository todoRepository,
+                            TodoStatsCache todoStatsCache,
+                            DoneWriteBehind doneWriteBehind,
+                            MissingTodoCache missingTodoCache,
+                            MeterRegistry meterRegistry) {
+        this.chunkSize = chunkSize;
+        this.retainedJobs = retainedJobs;
+        this.todoRepository = todoRepository;
+        this.todoStatsCache = todoStatsCache;
+        this.doneWriteBehind = doneWriteBehind;
+        this.missingTodoCache = missingTodoCache;
+        this.meterRegistry = meterRegistry;
+        this.deleted = meterRegistry.counter("users.deletion.todos", "cascade", TodoCascade.DELETE.parameter());
+        this.reassigned = meterRegistry.counter("users.deletion.todos", "cascade", TodoCascade.REASSIGN.parameter());
+        meterRegistry.gaugeCollectionSize("users.deletion.queued", List.of(), queued);
+    }
+
+    /**
+     * Queues a job over the todos of the given user. The snapshot is stored with reassigned todos, as
+     * AssigneeSnapshots.snapshotOf would return it for the new assignee.
+     */
+    public UserDeletionJobResponse submit(String userId, TodoCascade cascade, String reassignToUserId,
+                                          AssigneeSnapshot reassignToSnapshot) {
+        UserDeletionJob job = new UserDeletionJob(userId, cascade, reassignToUserId, reassignToSnapshot);
+        synchronized (jobs) {
+            jobs.put(job.id(), job);
+            Iterator<UserDeletionJob> oldest = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && oldest.hasNext()) {
+                if (oldest.next().status() != Status.QUEUED) {
+                    oldest.remove();
+                }
+            }
+        }
+        queued.add(job);
+        signal.release();
+        return job.toResponse();
+    }
+
+    // Newest first
+    public List<UserDeletionJobResponse> getJobs() {
+        List<UserDeletionJobResponse> responses = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> responses.add(0, job.toResponse()));
+        }
+        return responses;
+    }
+
+    public UserDeletionJobResponse getJob(String id) {
+        synchronized (jobs) {
+            UserDeletionJob job = jobs.get(id);
+            return job != null ? job.toResponse() : null;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("user-deletion-jobs").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            signal.release();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server (SMART_LIFECYCLE_PHASE - 1024), so no job is submitted once the worker is gone,
+    // and before the write-behind queue (- 2048) the jobs discard from
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1536;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                signal.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            runQueued();
+        }
+        for (UserDeletionJob job; (job = queued.poll()) != null; ) {
+            finish(job, Status.INTERRUPTED, "Shut down before the job started");
+        }
+    }
+
+    void runQueued() {
+        UserDeletionJob job;
+        while (running && (job = queued.poll()) != null) {
+            execute(job);
+        }
+    }
+
+    private void execute(UserDeletionJob job) {
+        job.started();
+        int attempt = 1;
+        while (running) {
+            try {
+                if (runChunk(job) < chunkSize) {
+                    finish(job, Status.SUCCEEDED, null);
+                    return;
+                }
+                attempt = 1;
+            } catch (DataAccessException e) {
+                if (attempt == CHUNK_ATTEMPTS) {
+                    log.error("Giving up user deletion job {} for user {}", job.id(), job.userId(), e);
+                    finish(job, Status.FAILED, e.getMessage());
+                    return;
+                }
+                log.warn("User deletion job {} failed a chunk, retrying in {}", job.id(), RETRY_DELAY, e);
+                attempt++;
+                sleep(RETRY_DELAY);
+            }
+        }
+        finish(job, Status.INTERRUPTED, "Shut down before the job finished");
+    }
+
+    // Returns the number of todos the chunk covered
+    private int runChunk(UserDeletionJob job) {
+        List<String> ids;
+        if (job.cascade() == TodoCascade.DELETE) {
+            ids = todoRepository.deleteChunkOfAssignee(job.userId(), chunkSize);
+            for (String id : ids) {
+                doneWriteBehind.discard(id);
+                missingTodoCache.markMissing(id);
+            }
+            deleted.increment(ids.size());
+        } else {
+            // Queued toggles are keyed by their old assignee, so they are written before the todos move
+            doneWriteBehind.flushAssignee(job.userId());
+            ids = todoRepository.reassignChunkOfAssignee(job.userId(), job.reassignToUserId(),
+                    job.reassignToSnapshot(), chunkSize);
+            todoStatsCache.assigneeChanged(job.reassignToUserId());
+            reassigned.increment(ids.size());
+        }
+        todoStatsCache.assigneeChanged(job.userId());
+        job.processed(ids.size());
+        return ids.size();
+    }
+
+    private void finish(UserDeletionJob job, Status status, String error) {
+        job.finished(status, error);
+        meterRegistry.counter("users.deletion.jobs", "status", status.name().toLowerCase(Locale.ROOT)).increment();
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
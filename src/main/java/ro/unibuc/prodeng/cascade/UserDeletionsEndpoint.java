@@ -0,0 +1,31 @@
+package ro.unibuc.prodeng.cascade;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import ro.unibuc.prodeng.response.UserDeletionJobResponse;
+
+// Progress of recent cascading user deletions: /actuator/userdeletions and /actuator/userdeletions/{id}
+@Component
+@Endpoint(id = "userdeletions")
+public class UserDeletionsEndpoint {
+
+    @Autowired
+    private UserDeletionJobs userDeletionJobs;
+
+    @ReadOperation
+    public List<UserDeletionJobResponse> jobs() {
+        return userDeletionJobs.getJobs();
+    }
+
+    // A null result is answered with 404
+    @ReadOperation
+    public UserDeletionJobResponse job(@Selector String id) {
+        return userDeletionJobs.getJob(id);
+    }
+}
@@ -0,0 +1,130 @@
+package ro.unibuc.prodeng.compression;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Lets Tomcat apply server.compression.min-response-size to API responses. Tomcat decides whether to compress
+ * when the response is committed, and only knows the length of a body that was complete by then; Spring MVC
+ * flushes after writing each body, which committed every response without a length, so every response got
+ * compressed. This filter ignores those flushes: a body that fits the response buffer is committed when the
+ * response completes, with its length, and a larger one as soon as the buffer fills up. Streamed NDJSON and
+ * event-stream bodies keep their flushes, since each one hands a record to the client.
+ */
+@Component
+@Profile("!reactive")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private static final List<MediaType> STREAMING_TYPES =
+            List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    private final boolean enabled;
+
+    public CompressionThresholdFilter(@Value("${server.compression.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, new UnflushedResponse(response));
+    }
+
+    private static final class UnflushedResponse extends HttpServletResponseWrapper {
+
+        private ServletOutputStream outputStream;
+
+        UnflushedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new UnflushedOutputStream(super.getOutputStream(), this::isStreaming);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (isStreaming()) {
+                super.flushBuffer();
+            }
+        }
+
+        // The content type is set before the first record is written, so it is known by the first flush
+        private boolean isStreaming() {
+            String contentType = getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return STREAMING_TYPES.stream().anyMatch(type -> type.isCompatibleWith(mediaType));
+        }
+    }
+
+    private static final class UnflushedOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final BooleanSupplier streaming;
+
+        UnflushedOutputStream(ServletOutputStream delegate, BooleanSupplier streaming) {
+            this.delegate = delegate;
+            this.streaming = streaming;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        // The body is written out when the buffer fills up or the response completes
+        @Override
+        public void flush() throws IOException {
+            if (streaming.getAsBoolean()) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
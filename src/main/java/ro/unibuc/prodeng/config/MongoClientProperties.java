@@ -0,0 +1,52 @@
+package ro.unibuc.prodeng.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.ReadPreference;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the Mongo client built in {@link MongoConfig}, bound from {@code mongodb.*}.
+ * Client settings left unset (null, or empty) keep the value given by the connection string's options,
+ * or the driver default.
+ */
+@ConfigurationProperties(prefix = "mongodb")
+public record MongoClientProperties(
+    Connection connection,
+    @DefaultValue("test") String database,
+    @DefaultValue Pool pool,
+    Duration connectTimeout,
+    // 0 disables the socket read timeout
+    Duration socketTimeout,
+    // Any of zstd, snappy, zlib, in order of preference (zstd and snappy need zstd-jni / snappy-java at runtime)
+    List<String> compressors,
+    String readPreference,
+    // Creating the indexes declared on the entities needs a reachable server while the context starts
+    @DefaultValue("true") boolean autoIndexCreation
+) {
+
+    // The read preference the client ends up with: the property if set, else the connection string's
+    public ReadPreference effectiveReadPreference() {
+        if (readPreference != null && !readPreference.isBlank()) {
+            return ReadPreference.valueOf(readPreference);
+        }
+        ReadPreference fromUrl = new ConnectionString(connection.url()).getReadPreference();
+        return fromUrl != null ? fromUrl : ReadPreference.primary();
+    }
+
+    public record Connection(
+        String url
+    ) {}
+
+    public record Pool(
+        Integer maxSize,
+        Integer minSize,
+        Duration maxWaitTime,
+        // 0 keeps idle connections forever
+        Duration maxConnectionIdleTime
+    ) {}
+}
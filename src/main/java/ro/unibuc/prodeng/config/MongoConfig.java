@@ -2,37 +2,109 @@ package ro.unibuc.prodeng.config;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
-import org.springframework.beans.factory.annotation.Value;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 
+import ro.unibuc.prodeng.metrics.MongoCallCounter;
+
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Configuration
+@EnableConfigurationProperties(MongoClientProperties.class)
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
-    @Value("${mongodb.connection.url}")
-    private String connectionURL;
+    @Autowired
+    private MongoClientProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Override
     protected String getDatabaseName() {
-        return "test";
+        return properties.database();
     }
 
     @Override
     public MongoClient mongoClient() {
-        MongoClientSettings mongoClientSettings = MongoClientSettings.builder()
-                .applyConnectionString(new ConnectionString(connectionURL))
-                .build();
+        return MongoClients.create(clientSettings(properties, meterRegistry));
+    }
 
-        return MongoClients.create(mongoClientSettings);
+    @Override
+    protected boolean autoIndexCreation() {
+        return properties.autoIndexCreation();
     }
 
     @Override
     public Collection<String> getMappingBasePackages() {
         return Collections.singleton("ro.unibuc.prodeng.model");
     }
+
+    /**
+     * Client settings shared by the synchronous client and the reactive one used by the reactive profile.
+     * Only the properties that are set override the connection string, so options such as maxPoolSize or
+     * readPreference given in the URL still apply.
+     */
+    static MongoClientSettings clientSettings(MongoClientProperties properties, MeterRegistry meterRegistry) {
+        // The pool bounds the connections a pod opens regardless of how many request threads are waiting on Mongo;
+        // see application-virtual-threads.properties for the sizing used with virtual threads
+        MongoClientProperties.Pool pool = properties.pool();
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(properties.connection().url()))
+                .applyToConnectionPoolSettings(settings -> {
+                    ifSet(pool.maxSize(), settings::maxSize);
+                    ifSet(pool.minSize(), settings::minSize);
+                    ifSet(pool.maxWaitTime(), wait -> settings.maxWaitTime(wait.toMillis(), TimeUnit.MILLISECONDS));
+                    ifSet(pool.maxConnectionIdleTime(),
+                            idle -> settings.maxConnectionIdleTime(idle.toMillis(), TimeUnit.MILLISECONDS));
+                    settings.addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry))
+                            .addConnectionPoolListener(new MongoPoolCheckoutListener(meterRegistry));
+                })
+                .applyToSocketSettings(settings -> {
+                    ifSet(properties.connectTimeout(),
+                            timeout -> settings.connectTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS));
+                    ifSet(properties.socketTimeout(),
+                            timeout -> settings.readTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS));
+                })
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+                .addCommandListener(new MongoCallCounter());
+        if (properties.compressors() != null && !properties.compressors().isEmpty()) {
+            builder.compressorList(compressors(properties.compressors()));
+        }
+        if (properties.readPreference() != null && !properties.readPreference().isBlank()) {
+            builder.readPreference(ReadPreference.valueOf(properties.readPreference()));
+        }
+        return builder.build();
+    }
+
+    private static <T> void ifSet(T value, Consumer<T> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    private static List<MongoCompressor> compressors(List<String> names) {
+        return names.stream()
+                .map(name -> switch (name.trim().toLowerCase()) {
+                    case "zstd" -> MongoCompressor.createZstdCompressor();
+                    case "snappy" -> MongoCompressor.createSnappyCompressor();
+                    case "zlib" -> MongoCompressor.createZlibCompressor();
+                    default -> throw new IllegalArgumentException("Unsupported Mongo compressor: " + name);
+                })
+                .toList();
+    }
 }
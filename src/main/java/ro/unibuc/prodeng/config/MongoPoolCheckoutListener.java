@@ -0,0 +1,44 @@
+package ro.unibuc.prodeng.config;
+
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records how long requests wait to check a connection out of the pool, which tells pool
+ * starvation apart from slow commands (timed separately by the command listener).
+ */
+public class MongoPoolCheckoutListener implements ConnectionPoolListener {
+
+    private final Timer checkedOut;
+    private final MeterRegistry meterRegistry;
+
+    public MongoPoolCheckoutListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.checkedOut = checkoutTimer("success");
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        checkedOut.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkoutTimer(event.getReason().name().toLowerCase())
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer checkoutTimer(String outcome) {
+        return Timer.builder("mongodb.driver.pool.checkout.wait")
+                .description("Time spent waiting for a pooled connection")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package ro.unibuc.prodeng.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Reactive Mongo client for the reactive profile, configured from the same mongodb.* properties as the
+ * synchronous one. The mapping converter (and so the index definitions) is shared with {@link MongoConfig}.
+ */
+@Configuration
+@Profile("reactive")
+@EnableReactiveMongoRepositories(basePackages = "ro.unibuc.prodeng.reactive")
+public class ReactiveMongoConfig {
+
+    @Autowired
+    private MongoClientProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean
+    public MongoClient reactiveMongoClient() {
+        return MongoClients.create(MongoConfig.clientSettings(properties, meterRegistry));
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient,
+                                                       MappingMongoConverter mappingMongoConverter) {
+        return new ReactiveMongoTemplate(
+                new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, properties.database()),
+                mappingMongoConverter);
+    }
+}
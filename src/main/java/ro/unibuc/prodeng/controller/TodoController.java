@@ -1,8 +1,11 @@
 package ro.unibuc.prodeng.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,11 +14,17 @@ import jakarta.validation.Valid;
 import ro.unibuc.prodeng.request.AssignTodoRequest;
 import ro.unibuc.prodeng.request.CreateTodoRequest;
 import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.BulkCreateTodoResponse;
+import ro.unibuc.prodeng.response.ETagged;
+import ro.unibuc.prodeng.response.PageResponse;
 import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.response.TodoStatsResponse;
+import ro.unibuc.prodeng.etag.ETags;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
 import ro.unibuc.prodeng.service.TodoService;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/todos")
 public class TodoController {
 
@@ -23,15 +32,83 @@ public class TodoController {
     private TodoService todoService;
 
     @GetMapping
-    public ResponseEntity<List<TodoResponse>> getTodosByUserEmail(@RequestParam String assigneeEmail) throws EntityNotFoundException {
-        List<TodoResponse> todos = todoService.getTodosByUserEmail(assigneeEmail);
+    public ResponseEntity<List<TodoResponse>> getTodosByUserEmail(
+            @RequestParam String assigneeEmail,
+            @RequestParam(required = false) Boolean done,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws EntityNotFoundException {
+        if (ifNoneMatch != null) {
+            String eTag = todoService.getTodosETag(assigneeEmail, done);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return notModified(eTag);
+            }
+        }
+        ETagged<List<TodoResponse>> todos = todoService.getTaggedTodosByUserEmail(assigneeEmail, done);
+        return ResponseEntity.ok().eTag(todos.eTag()).body(todos.body());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageResponse<TodoResponse>> getTodosPageByUserEmail(
+            @RequestParam String assigneeEmail,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) throws EntityNotFoundException {
+        PageResponse<TodoResponse> page = todoService.getTodosPageByUserEmail(assigneeEmail, done, limit, cursor);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getSparseTodosByUserEmail(
+            @RequestParam String assigneeEmail,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam String fields) throws EntityNotFoundException {
+        List<Map<String, Object>> todos = todoService.getSparseTodosByUserEmail(assigneeEmail, done, fields);
         return ResponseEntity.ok(todos);
     }
 
+    @GetMapping(params = {"limit", "fields"})
+    public ResponseEntity<PageResponse<Map<String, Object>>> getSparseTodosPageByUserEmail(
+            @RequestParam String assigneeEmail,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam String fields,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) throws EntityNotFoundException {
+        PageResponse<Map<String, Object>> page = todoService.getSparseTodosPageByUserEmail(assigneeEmail, done, fields, limit, cursor);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<PageResponse<TodoStatsResponse>> getTodoStats(
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor) {
+        PageResponse<TodoStatsResponse> stats = todoService.getTodoStats(limit, cursor);
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<PageResponse<TodoResponse>> searchTodos(
+            @RequestParam String q,
+            @RequestParam(required = false) String assigneeEmail,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) throws EntityNotFoundException {
+        PageResponse<TodoResponse> page = todoService.searchTodos(q, assigneeEmail, done, limit, cursor);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<TodoResponse> getTodoById(@PathVariable String id) throws EntityNotFoundException {
-        TodoResponse todo = todoService.getTodoById(id);
-        return ResponseEntity.ok(todo);
+    public ResponseEntity<TodoResponse> getTodoById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws EntityNotFoundException {
+        if (ifNoneMatch != null) {
+            String eTag = todoService.getTodoETag(id);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return notModified(eTag);
+            }
+        }
+        ETagged<TodoResponse> todo = todoService.getTaggedTodoById(id);
+        return ResponseEntity.ok().eTag(todo.eTag()).body(todo.body());
     }
 
     @PostMapping
@@ -40,6 +117,12 @@ public class TodoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(todo);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateTodoResponse> createTodos(@RequestBody List<CreateTodoRequest> requests) {
+        BulkCreateTodoResponse response = todoService.createTodos(requests);
+        return ResponseEntity.ok(response);
+    }
+
     @PatchMapping("/{id}/done")
     public ResponseEntity<TodoResponse> setDone(@PathVariable String id, @RequestBody boolean done) throws EntityNotFoundException {
         TodoResponse todo = todoService.setDone(id, done);
@@ -63,4 +146,10 @@ public class TodoController {
         todoService.deleteTodo(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Conditional GETs are checked against a version-only projection first, so polls of unchanged
+    // resources neither load nor serialize the documents
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
 }
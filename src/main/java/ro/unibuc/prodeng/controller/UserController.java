@@ -1,36 +1,90 @@
 package ro.unibuc.prodeng.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.validation.Valid;
+import ro.unibuc.prodeng.cascade.TodoCascade;
 import ro.unibuc.prodeng.request.ChangeNameRequest;
 import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.ETagged;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.UserDeletionJobResponse;
 import ro.unibuc.prodeng.response.UserResponse;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
 import ro.unibuc.prodeng.service.UserService;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/users")
 public class UserController {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     public ResponseEntity<List<UserResponse>> getAllUsers() {
         List<UserResponse> users = userService.getAllUsers();
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageResponse<UserResponse>> getUsersPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        PageResponse<UserResponse> page = userService.getUsersPage(limit, cursor);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getSparseUsers(@RequestParam String fields) {
+        List<Map<String, Object>> users = userService.getSparseUsers(fields);
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping(params = {"limit", "fields"})
+    public ResponseEntity<PageResponse<Map<String, Object>>> getSparseUsersPage(
+            @RequestParam String fields,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        PageResponse<Map<String, Object>> page = userService.getSparseUsersPage(fields, limit, cursor);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = out -> userService.streamAllUsers(user -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable String id) throws EntityNotFoundException {
-        UserResponse user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+        // Users are served from the cache, so a matching If-None-Match is left to Spring's 304 handling
+        ETagged<UserResponse> user = userService.getTaggedUserById(id);
+        return ResponseEntity.ok().eTag(user.eTag()).body(user.body());
     }
 
     @PostMapping
@@ -61,10 +115,22 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    // todos=delete|reassign also removes the user's todos, or moves them to reassignTo, in a background job
+    @DeleteMapping(path = "/{id}", params = "todos")
+    public ResponseEntity<UserDeletionJobResponse> deleteUserCascading(@PathVariable String id,
+                                                                       @RequestParam String todos,
+                                                                       @RequestParam(required = false) String reassignTo)
+            throws EntityNotFoundException {
+        UserDeletionJobResponse job = userService.deleteUser(id, TodoCascade.fromParameter(todos), reassignTo);
+        return ResponseEntity.accepted()
+                .location(URI.create("/actuator/userdeletions/" + job.id()))
+                .body(job);
+    }
+
     @GetMapping("/by-email")
     public ResponseEntity<UserResponse> getUserByEmail(@RequestParam String email)
             throws EntityNotFoundException {
-        UserResponse user = userService.getUserByEmail(email);
-        return ResponseEntity.ok(user);
+        ETagged<UserResponse> user = userService.getTaggedUserByEmail(email);
+        return ResponseEntity.ok().eTag(user.eTag()).body(user.body());
     }
 }
@@ -0,0 +1,95 @@
+package ro.unibuc.prodeng.etag;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.model.TodoVersion;
+import ro.unibuc.prodeng.model.UserEntity;
+
+/**
+ * Weak ETags derived from entity versions. A todo response also shows its assignee's name and email,
+ * so todo tags cover the assignee's version as well.
+ *
+ * <p>A tag names a state of the resource rather than the bytes of one representation, so the same tag stands for
+ * the JSON, CBOR and Smile bodies, compressed or not. Tomcat also only compresses responses with weak tags.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(UserEntity user) {
+        return quote(Long.toString(version(user.version())));
+    }
+
+    public static String of(Long todoVersion, UserEntity assignee) {
+        return quote(version(todoVersion) + "." + version(assignee.version()));
+    }
+
+    // Same tag as for the user the snapshot was copied from
+    public static String of(Long todoVersion, AssigneeSnapshot assignee) {
+        return quote(version(todoVersion) + "." + assignee.userVersion());
+    }
+
+    /**
+     * Aggregate tag of an assignee's todo list: a digest of the assignee version and every todo id and
+     * version, independent of the order the todos were read in.
+     */
+    public static String ofList(UserEntity assignee, Collection<TodoVersion> todos) {
+        MessageDigest digest = sha256();
+        update(digest, assignee.id() + ":" + version(assignee.version()));
+        todos.stream()
+                .sorted(Comparator.comparing(TodoVersion::id))
+                .forEach(todo -> update(digest, todo.id() + ":" + version(todo.version())));
+        // 128 bits are plenty to tell two states of one list apart
+        return quote(HexFormat.of().formatHex(digest.digest(), 0, 16));
+    }
+
+    /**
+     * Whether an If-None-Match header matches the current tag, using the weak comparison RFC 9110 prescribes
+     * for If-None-Match.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = opaque(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long version(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    private static String quote(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
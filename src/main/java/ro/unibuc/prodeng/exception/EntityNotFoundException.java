@@ -3,12 +3,26 @@ package ro.unibuc.prodeng.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Thrown for unknown ids and emails. Not-found is an expected, high-volume outcome (clients poll deleted
+ * todos), so the exception carries no stack trace and its message is only built if someone asks for it.
+ */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class EntityNotFoundException extends RuntimeException {
 
-    private static final String entityNotFoundTemplate = "Entity: %s was not found";
+    private final String entity;
 
     public EntityNotFoundException(String entity) {
-        super(String.format(entityNotFoundTemplate, entity));
+        super(null, null, false, false);
+        this.entity = entity;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Entity: " + entity + " was not found";
     }
 }
@@ -0,0 +1,27 @@
+package ro.unibuc.prodeng.exception;
+
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Pre-serialized JSON error bodies for the hot error paths, byte-for-byte what Jackson would write for
+ * {@code Map.of("error", message)}: only the entity is encoded per request, the rest is a shared constant.
+ */
+public final class ErrorBodies {
+
+    private static final byte[] NOT_FOUND_PREFIX = "{\"error\":\"Entity: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NOT_FOUND_SUFFIX = " was not found\"}".getBytes(StandardCharsets.UTF_8);
+
+    private ErrorBodies() {
+    }
+
+    public static byte[] notFound(EntityNotFoundException ex) {
+        byte[] entity = JsonStringEncoder.getInstance().quoteAsUTF8(String.valueOf(ex.getEntity()));
+        byte[] body = new byte[NOT_FOUND_PREFIX.length + entity.length + NOT_FOUND_SUFFIX.length];
+        System.arraycopy(NOT_FOUND_PREFIX, 0, body, 0, NOT_FOUND_PREFIX.length);
+        System.arraycopy(entity, 0, body, NOT_FOUND_PREFIX.length, entity.length);
+        System.arraycopy(NOT_FOUND_SUFFIX, 0, body, NOT_FOUND_PREFIX.length + entity.length, NOT_FOUND_SUFFIX.length);
+        return body;
+    }
+}
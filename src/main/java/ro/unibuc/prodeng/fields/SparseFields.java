@@ -0,0 +1,85 @@
+package ro.unibuc.prodeng.fields;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+
+/**
+ * Helpers for sparse fieldsets: {@code fields=id,done} on a list endpoint names the response fields to return.
+ * Only the document fields behind them are read from Mongo, and each row is written as a map of just those
+ * fields, in the order of the full response.
+ */
+public final class SparseFields {
+
+    public static final List<String> TODO_FIELDS = List.of("id", "description", "done", "assigneeName", "assigneeEmail");
+    public static final List<String> USER_FIELDS = List.of("id", "name", "email");
+
+    private SparseFields() {
+    }
+
+    /**
+     * Returns the requested fields in response order. Throws if the parameter is blank or names a field the
+     * response does not have.
+     */
+    public static List<String> parse(String fields, List<String> allowed) {
+        List<String> requested = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty() && !allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + "; fields must be among " + String.join(",", allowed));
+            }
+            requested.add(name);
+        }
+        List<String> ordered = allowed.stream().filter(requested::contains).toList();
+        if (ordered.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one of " + String.join(",", allowed));
+        }
+        return ordered;
+    }
+
+    /**
+     * Todo document fields to project. The id is always read, since it is also the paging key, and so is done,
+     * which the entity cannot be built without. Assignee fields come from the list's assignee.
+     */
+    public static List<String> todoDocumentFields(List<String> fields) {
+        return fields.contains("description") ? List.of("id", "done", "description") : List.of("id", "done");
+    }
+
+    public static List<String> userDocumentFields(List<String> fields) {
+        List<String> projected = new ArrayList<>(fields);
+        if (!projected.contains("id")) {
+            projected.add("id");
+        }
+        return projected;
+    }
+
+    public static Map<String, Object> todoRow(TodoEntity todo, UserEntity assignee, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, switch (field) {
+                case "id" -> todo.id();
+                case "description" -> todo.description();
+                case "done" -> todo.done();
+                case "assigneeName" -> assignee.name();
+                default -> assignee.email();
+            });
+        }
+        return row;
+    }
+
+    public static Map<String, Object> userRow(UserEntity user, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, switch (field) {
+                case "id" -> user.id();
+                case "name" -> user.name();
+                default -> user.email();
+            });
+        }
+        return row;
+    }
+}
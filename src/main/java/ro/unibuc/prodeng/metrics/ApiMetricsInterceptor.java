@@ -0,0 +1,109 @@
+package ro.unibuc.prodeng.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Times every controller endpoint and counts its Mongo commands, publishing per resource
+ * (prod_eng_api_users_*, prod_eng_api_todos_*):
+ * <ul>
+ *     <li>{@code prod_eng.api.<resource>.time} and {@code .count}, tagged by endpoint, HTTP method and outcome</li>
+ *     <li>{@code prod_eng.api.<resource>.mongo.calls}, the Mongo commands issued per request</li>
+ * </ul>
+ * Read requests are also recorded as {@code prod_eng.info.time} / {@code prod_eng.info.count}, the series the
+ * throughput and canary alerts watch.
+ *
+ * <p>Working at the handler level rather than around controller methods means requests rejected before the
+ * method runs (e.g. bean validation of the body) are counted too.
+ */
+@Component
+public class ApiMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ApiMetricsInterceptor.class.getName() + ".start";
+    private static final String MONGO_CALLS_ATTRIBUTE = ApiMetricsInterceptor.class.getName() + ".mongoCalls";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            // Called again when an async request is dispatched back; the original start time is kept
+            if (request.getAttribute(START_ATTRIBUTE) == null) {
+                request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            }
+            MongoCallCounter.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The request continues on another thread: carry over what this one counted
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(MONGO_CALLS_ATTRIBUTE, mongoCalls(request) + MongoCallCounter.end());
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        int mongoCalls = mongoCalls(request) + MongoCallCounter.end();
+        String resource = resource(handlerMethod);
+        String endpoint = handlerMethod.getMethod().getName();
+        Outcome outcome = ex != null ? Outcome.of(ex) : Outcome.of(response.getStatus());
+        Tags tags = Tags.of("endpoint", endpoint, "method", request.getMethod(), "outcome", outcome.tag());
+
+        record("prod_eng.api." + resource, tags, elapsed);
+        DistributionSummary.builder("prod_eng.api." + resource + ".mongo.calls")
+                .tags("endpoint", endpoint)
+                .serviceLevelObjectives(1, 2, 4, 8, 16, 32)
+                .register(meterRegistry)
+                .record(mongoCalls);
+        if ("GET".equals(request.getMethod())) {
+            record("prod_eng.info", tags.and("resource", resource), elapsed);
+        }
+    }
+
+    private void record(String prefix, Tags tags, long elapsedNanos) {
+        Timer.builder(prefix + ".time")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter(prefix + ".count", tags).increment();
+    }
+
+    private static int mongoCalls(HttpServletRequest request) {
+        return request.getAttribute(MONGO_CALLS_ATTRIBUTE) instanceof Integer calls ? calls : 0;
+    }
+
+    // "/api/users" -> "users"
+    private static String resource(HandlerMethod handlerMethod) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequestMapping.class);
+        if (mapping == null || mapping.path().length == 0) {
+            return "root";
+        }
+        String path = mapping.path()[0];
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
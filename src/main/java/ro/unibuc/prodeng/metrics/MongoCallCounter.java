@@ -0,0 +1,40 @@
+package ro.unibuc.prodeng.metrics;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+
+/**
+ * Counts the Mongo commands issued by the current thread between {@link #begin()} and {@link #end()}.
+ * The synchronous driver notifies command listeners on the calling thread, so a request served on one thread
+ * sees exactly its own commands.
+ */
+public final class MongoCallCounter implements CommandListener {
+
+    private static final ThreadLocal<int[]> calls = new ThreadLocal<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        int[] count = calls.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    /**
+     * Starts counting on the current thread; a count already in progress is kept.
+     */
+    public static void begin() {
+        if (calls.get() == null) {
+            calls.set(new int[1]);
+        }
+    }
+
+    /**
+     * Stops counting on the current thread and returns the number of commands seen since {@link #begin()}.
+     */
+    public static int end() {
+        int[] count = calls.get();
+        calls.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -0,0 +1,54 @@
+package ro.unibuc.prodeng.metrics;
+
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Value of the {@code outcome} tag on the prod_eng_* meters.
+ */
+public enum Outcome {
+    OK("ok"),
+    NOT_MODIFIED("not_modified"),
+    NOT_FOUND("not_found"),
+    VALIDATION_ERROR("validation_error"),
+    CLIENT_ERROR("client_error"),
+    ERROR("error");
+
+    private final String tag;
+
+    Outcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    // IllegalArgumentException is how the services reject invalid input (mapped to 400 by GlobalExceptionHandler)
+    public static Outcome of(Throwable e) {
+        if (e instanceof EntityNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (e instanceof IllegalArgumentException || e instanceof ValidationException) {
+            return VALIDATION_ERROR;
+        }
+        return ERROR;
+    }
+
+    public static Outcome of(int status) {
+        if (status == 304) {
+            return NOT_MODIFIED;
+        }
+        if (status < 400) {
+            return OK;
+        }
+        if (status == 404) {
+            return NOT_FOUND;
+        }
+        if (status == 400 || status == 422) {
+            return VALIDATION_ERROR;
+        }
+        return status < 500 ? CLIENT_ERROR : ERROR;
+    }
+}
@@ -0,0 +1,16 @@
+package ro.unibuc.prodeng.model;
+
+/**
+ * Copy of the assignee fields a todo response shows, embedded in the todo when the assignee snapshot mode is on.
+ * {@code userVersion} is the version of the user it was copied from, so updates can tell stale copies apart.
+ */
+public record AssigneeSnapshot(
+    String name,
+    String email,
+    long userVersion
+) {
+
+    public static AssigneeSnapshot of(UserEntity user) {
+        return new AssigneeSnapshot(user.name(), user.email(), user.version() == null ? 0 : user.version());
+    }
+}
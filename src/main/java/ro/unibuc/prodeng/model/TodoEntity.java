@@ -1,12 +1,35 @@
 package ro.unibuc.prodeng.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+import org.springframework.data.mongodb.core.mapping.ShardingStrategy;
 
+/**
+ * Todos are sharded on a ranged {assignedUserId, _id} key (see TodoSharding), backed by the assignee_id index:
+ * an assignee's todos stay together on one shard, and _id lets a large assignee's chunk still be split.
+ * Writes filter on the assignee as well as the id so they are routed to that shard.
+ */
 @Document(collection = "todos")
+@Sharded(shardKey = {"assignedUserId", "id"}, shardingStrategy = ShardingStrategy.RANGE)
+@CompoundIndex(name = "assignee_id", def = "{'assignedUserId': 1, '_id': 1}")
+@CompoundIndex(name = "assignee_done_id", def = "{'assignedUserId': 1, 'done': 1, '_id': 1}")
 public record TodoEntity(
     @Id String id,
-    String description,
+    // The collection's only text index, used by description search
+    @TextIndexed String description,
     boolean done,
-    String assignedUserId
-) {}
+    String assignedUserId,
+    // Incremented by every save and findAndModify; null on documents written before it was introduced
+    @Version Long version,
+    // Only written in assignee snapshot mode; null otherwise and until the backfill reaches the todo
+    AssigneeSnapshot assignee
+) {
+
+    public TodoEntity(String id, String description, boolean done, String assignedUserId) {
+        this(id, description, done, assignedUserId, null, null);
+    }
+}
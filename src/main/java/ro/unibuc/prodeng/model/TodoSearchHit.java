@@ -0,0 +1,21 @@
+package ro.unibuc.prodeng.model;
+
+import org.springframework.data.annotation.Id;
+
+/**
+ * A todo matched by a description search, with the text score it is ranked by.
+ */
+public record TodoSearchHit(
+    @Id String id,
+    String description,
+    boolean done,
+    String assignedUserId,
+    Long version,
+    AssigneeSnapshot assignee,
+    double score
+) {
+
+    public TodoEntity todo() {
+        return new TodoEntity(id, description, done, assignedUserId, version, assignee);
+    }
+}
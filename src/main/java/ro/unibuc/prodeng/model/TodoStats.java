@@ -0,0 +1,15 @@
+package ro.unibuc.prodeng.model;
+
+import org.springframework.data.annotation.Id;
+
+/**
+ * Open and done todo counts of one assignee, as produced by the stats aggregation.
+ * Name and email are null when the assignee no longer exists.
+ */
+public record TodoStats(
+    @Id String assignedUserId,
+    String name,
+    String email,
+    long open,
+    long done
+) {}
@@ -0,0 +1,14 @@
+package ro.unibuc.prodeng.model;
+
+import org.springframework.data.annotation.Id;
+
+/**
+ * Projection of a todo onto the fields its ETag is derived from, read to answer conditional requests
+ * without loading the full documents.
+ */
+public record TodoVersion(
+    @Id String id,
+    Long version,
+    String assignedUserId,
+    AssigneeSnapshot assignee
+) {}
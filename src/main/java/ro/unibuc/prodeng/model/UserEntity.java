@@ -1,6 +1,8 @@
 package ro.unibuc.prodeng.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "users")
@@ -8,5 +10,14 @@ public record UserEntity(
     @Id
     String id,
     String name,
-    String email
-) {}
+    @Indexed(unique = true)
+    String email,
+    // Incremented by every save and findAndModify; null on documents written before it was introduced
+    @Version
+    Long version
+) {
+
+    public UserEntity(String id, String name, String email) {
+        this(id, name, email, null);
+    }
+}
@@ -0,0 +1,52 @@
+package ro.unibuc.prodeng.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import ro.unibuc.prodeng.response.PageResponse;
+
+/**
+ * Helpers for keyset pagination: page size checks and opaque continuation tokens
+ * wrapping the sort key of the last returned document.
+ */
+public final class Pagination {
+
+    public static final int MAX_LIMIT = 500;
+
+    private Pagination() {
+    }
+
+    public static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Builds a page from a result fetched with {@code limit + 1} rows: the extra row only signals
+     * that another page exists and is not returned.
+     */
+    public static <E, R> PageResponse<R> toPage(List<E> rows, int limit, Function<E, String> key, Function<E, R> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? encodeCursor(key.apply(page.get(page.size() - 1))) : null;
+        return new PageResponse<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,69 @@
+package ro.unibuc.prodeng.reactive;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Content negotiation for the list endpoints. A functional handler's body is written by the first codec that
+ * takes it, not by the one the Accept header asks for, so the format is picked here: CBOR or Smile when the
+ * client prefers them, JSON otherwise. JSON arrays read as a Flux are streamed as the elements arrive; WebFlux
+ * has no streaming array encoder for CBOR or Smile, so for those the list is collected and written as one value.
+ */
+final class ListResponses {
+
+    private static final List<MediaType> BINARY_TYPES =
+            List.of(MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile"));
+
+    private ListResponses() {
+    }
+
+    static <T> Mono<ServerResponse> list(ServerRequest request, ServerResponse.BodyBuilder response,
+                                         Flux<T> items, Class<T> type) {
+        MediaType binary = binaryType(request);
+        return binary != null
+                ? items.collectList().flatMap(list -> response.contentType(binary).bodyValue(list))
+                : response.contentType(MediaType.APPLICATION_JSON).body(items, type);
+    }
+
+    static <T> Mono<ServerResponse> list(ServerRequest request, ServerResponse.BodyBuilder response,
+                                         Flux<T> items, ParameterizedTypeReference<T> type) {
+        MediaType binary = binaryType(request);
+        return binary != null
+                ? items.collectList().flatMap(list -> response.contentType(binary).bodyValue(list))
+                : response.contentType(MediaType.APPLICATION_JSON).body(items, type);
+    }
+
+    static Mono<ServerResponse> page(ServerRequest request, ServerResponse.BodyBuilder response, Object page) {
+        MediaType binary = binaryType(request);
+        return response.contentType(binary != null ? binary : MediaType.APPLICATION_JSON).bodyValue(page);
+    }
+
+    // A binary format is only picked if the Accept header prefers it over anything JSON would satisfy
+    private static MediaType binaryType(ServerRequest request) {
+        List<MediaType> accepted = new ArrayList<>(request.headers().accept());
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                break;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            for (MediaType binary : BINARY_TYPES) {
+                if (binary.equalsTypeAndSubtype(type)) {
+                    return binary;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,112 @@
+package ro.unibuc.prodeng.reactive;
+
+import java.util.Map;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.ErrorBodies;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.queryParam;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Routes of the reactive profile: the same /api/users and /api/todos contract as the servlet controllers,
+ * with errors mapped the way GlobalExceptionHandler maps them.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveRoutes {
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise also be picked as the reactive server
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> apiRoutes(UserHandler userHandler, TodoHandler todoHandler) {
+        RequestPredicate paged = queryParam("limit", limit -> true);
+        RequestPredicate sparse = queryParam("fields", fields -> true);
+        // Only an explicit NDJSON Accept header selects the stream; */* keeps the JSON array
+        RequestPredicate ndjson = request -> request.headers().accept().contains(MediaType.APPLICATION_NDJSON);
+
+        return route()
+                .GET("/api/users/by-email", userHandler::getUserByEmail)
+                .GET("/api/users/{id}", userHandler::getUserById)
+                .GET("/api/users", paged.and(sparse), userHandler::getSparseUsersPage)
+                .GET("/api/users", sparse, userHandler::getSparseUsers)
+                .GET("/api/users", paged, userHandler::getUsersPage)
+                .GET("/api/users", ndjson, userHandler::streamAllUsers)
+                .GET("/api/users", userHandler::getAllUsers)
+                .POST("/api/users", userHandler::createUser)
+                .PUT("/api/users/{id}", userHandler::changeName)
+                .PATCH("/api/users/{id}/name", userHandler::changeName)
+                .DELETE("/api/users/{id}", queryParam("todos", todos -> true), userHandler::deleteUserCascading)
+                .DELETE("/api/users/{id}", userHandler::deleteUser)
+                .GET("/api/todos/stats", todoHandler::getTodoStats)
+                .GET("/api/todos/search", todoHandler::searchTodos)
+                .GET("/api/todos/{id}", todoHandler::getTodoById)
+                .GET("/api/todos", paged.and(sparse), todoHandler::getSparseTodosPageByUserEmail)
+                .GET("/api/todos", sparse, todoHandler::getSparseTodosByUserEmail)
+                .GET("/api/todos", paged, todoHandler::getTodosPageByUserEmail)
+                .GET("/api/todos", todoHandler::getTodosByUserEmail)
+                .POST("/api/todos/bulk", todoHandler::createTodos)
+                .POST("/api/todos", todoHandler::createTodo)
+                .PATCH("/api/todos/{id}/done", todoHandler::setDone)
+                .PATCH("/api/todos/{id}/assignee", todoHandler::assign)
+                .PATCH("/api/todos/{id}/description", todoHandler::edit)
+                .DELETE("/api/todos/{id}", todoHandler::deleteTodo)
+                // The list endpoints pick JSON, CBOR or Smile by Accept under one ETag, so caches must key by it too
+                .filter((request, next) -> {
+                    request.exchange().getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                    return next.handle(request);
+                })
+                // Deferring also turns exceptions thrown while parsing the request into error signals
+                .filter((request, next) -> Mono.defer(() -> next.handle(request)).onErrorResume(ReactiveRoutes::toErrorResponse))
+                .build();
+    }
+
+    private static Mono<ServerResponse> toErrorResponse(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (e instanceof EntityNotFoundException notFound) {
+            return ServerResponse.status(HttpStatus.NOT_FOUND)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(ErrorBodies.notFound(notFound));
+        }
+        if (e instanceof ResponseStatusException statusException) {
+            String reason = statusException.getReason();
+            return error(statusException.getStatusCode(), reason != null ? reason : e.getMessage());
+        }
+        if (e instanceof ConcurrencyFailureException) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        }
+        // Raised when no pooled Mongo connection (or server) became available within the configured wait time
+        if (e instanceof DataAccessResourceFailureException) {
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .bodyValue(Map.of("error", "Database temporarily unavailable"));
+        }
+        return Mono.error(e);
+    }
+
+    private static Mono<ServerResponse> error(HttpStatusCode status, String message) {
+        return ServerResponse.status(status).bodyValue(Map.of("error", message));
+    }
+}
@@ -0,0 +1,18 @@
+package ro.unibuc.prodeng.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoVersion;
+
+public interface ReactiveTodoRepository extends ReactiveMongoRepository<TodoEntity, String> {
+
+    Flux<TodoEntity> findByAssignedUserId(String assignedUserId);
+
+    Flux<TodoEntity> findByAssignedUserIdAndDone(String assignedUserId, boolean done);
+
+    // Version-only projection, read to find a todo's shard key before writing it
+    Mono<TodoVersion> findVersionById(String id);
+}
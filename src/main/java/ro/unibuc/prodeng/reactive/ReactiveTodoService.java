@@ -0,0 +1,279 @@
+package ro.unibuc.prodeng.reactive;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ro.unibuc.prodeng.cache.MissingTodoCache;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.etag.ETags;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.fields.SparseFields;
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoVersion;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.pagination.Pagination;
+import ro.unibuc.prodeng.repository.TodoQueries;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.BulkCreateTodoResponse;
+import ro.unibuc.prodeng.response.ETagged;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.response.TodoStatsResponse;
+import ro.unibuc.prodeng.service.TodoService;
+import ro.unibuc.prodeng.sharding.TodoSharding;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
+
+/**
+ * Non-blocking counterpart of TodoService for the reactive profile.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTodoService {
+
+    @Autowired
+    private ReactiveTodoRepository todoRepository;
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private MissingTodoCache missingTodoCache;
+
+    @Autowired
+    private AssigneeSnapshots assigneeSnapshots;
+
+    @Autowired
+    private TodoStatsCache todoStatsCache;
+
+    @Autowired
+    private TodoSharding todoSharding;
+
+    /**
+     * Emits the assignee's todos as they are read from the Mongo cursor. The assignee is resolved by the caller
+     * so that an unknown email can still be answered with a 404 before the response body starts.
+     */
+    public Flux<TodoResponse> getTodosByAssignee(UserEntity assignee, Boolean done) {
+        Flux<TodoEntity> todos = done == null
+                ? todoRepository.findByAssignedUserId(assignee.id())
+                : todoRepository.findByAssignedUserIdAndDone(assignee.id(), done);
+        return todos.map(todo -> toResponse(todo, assignee));
+    }
+
+    // Same projection as TodoRepositoryCustomImpl.findVersions
+    public Mono<String> getTodosETag(UserEntity assignee, Boolean done) {
+        return mongoTemplate.query(TodoEntity.class)
+                .as(TodoVersion.class)
+                .matching(TodoQueries.ofAssignee(assignee.id(), done))
+                .all()
+                .collectList()
+                .map(todos -> ETags.ofList(assignee, todos));
+    }
+
+    public Mono<PageResponse<TodoResponse>> getTodosPageByUserEmail(String email, Boolean done, int limit, String cursor) {
+        return Mono.defer(() -> {
+            Pagination.checkLimit(limit);
+            String afterId = Pagination.decodeCursor(cursor);
+            return userService.getUserEntityByEmail(email).flatMap(user ->
+                    mongoTemplate.find(TodoQueries.page(user.id(), done, afterId, limit + 1), TodoEntity.class)
+                            .collectList()
+                            .map(todos -> Pagination.toPage(todos, limit, TodoEntity::id, todo -> toResponse(todo, user))));
+        });
+    }
+
+    // Sparse variants, with the projection of TodoRepositoryCustomImpl.findPageProjected
+    public Flux<Map<String, Object>> getSparseTodosByAssignee(UserEntity assignee, Boolean done, List<String> fields) {
+        return mongoTemplate.find(projected(TodoQueries.page(assignee.id(), done, null, 0), fields), TodoEntity.class)
+                .map(todo -> SparseFields.todoRow(todo, assignee, fields));
+    }
+
+    public Mono<PageResponse<Map<String, Object>>> getSparseTodosPageByUserEmail(String email, Boolean done, List<String> fields,
+                                                                                int limit, String cursor) {
+        return Mono.defer(() -> {
+            Pagination.checkLimit(limit);
+            String afterId = Pagination.decodeCursor(cursor);
+            return userService.getUserEntityByEmail(email).flatMap(user ->
+                    mongoTemplate.find(projected(TodoQueries.page(user.id(), done, afterId, limit + 1), fields), TodoEntity.class)
+                            .collectList()
+                            .map(todos -> Pagination.toPage(todos, limit, TodoEntity::id,
+                                    todo -> SparseFields.todoRow(todo, user, fields))));
+        });
+    }
+
+    private static Query projected(Query query, List<String> fields) {
+        query.fields().include(SparseFields.todoDocumentFields(fields).toArray(String[]::new));
+        return query;
+    }
+
+    // A dashboard query rather than a fan-in path, so like bulk creation it reuses the blocking implementation
+    public Mono<PageResponse<TodoStatsResponse>> getTodoStats(int limit, String cursor) {
+        return Mono.fromCallable(() -> todoService.getTodoStats(limit, cursor))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Ranked by a text score Mongo computes over all matches, so the blocking implementation is reused here too
+    public Mono<PageResponse<TodoResponse>> searchTodos(String text, String assigneeEmail, Boolean done, int limit, String cursor) {
+        return Mono.fromCallable(() -> todoService.searchTodos(text, assigneeEmail, done, limit, cursor))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<ETagged<TodoResponse>> getTaggedTodoById(String id) {
+        if (missingTodoCache.isMissing(id)) {
+            return Mono.error(new EntityNotFoundException(id));
+        }
+        return todoRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> missing(id)))
+                .flatMap(todo -> {
+                    AssigneeSnapshot snapshot = assigneeSnapshots.usableSnapshot(todo);
+                    if (snapshot != null) {
+                        return Mono.just(new ETagged<>(ETags.of(todo.version(), snapshot), toResponse(todo, snapshot)));
+                    }
+                    return userService.getUserEntityById(todo.assignedUserId())
+                            .map(assignee -> new ETagged<>(ETags.of(todo.version(), assignee), toResponse(todo, assignee)));
+                });
+    }
+
+    public Mono<String> getTodoETag(String id) {
+        if (missingTodoCache.isMissing(id)) {
+            return Mono.error(new EntityNotFoundException(id));
+        }
+        return mongoTemplate.query(TodoEntity.class)
+                .as(TodoVersion.class)
+                .matching(TodoQueries.byId(id))
+                .one()
+                .switchIfEmpty(Mono.error(() -> missing(id)))
+                .flatMap(todo -> assigneeSnapshots.isEnabled() && todo.assignee() != null
+                        ? Mono.just(ETags.of(todo.version(), todo.assignee()))
+                        : userService.getUserEntityById(todo.assignedUserId())
+                                .map(assignee -> ETags.of(todo.version(), assignee)));
+    }
+
+    public Mono<TodoResponse> createTodo(CreateTodoRequest request) {
+        return userService.getUserEntityByEmail(request.assigneeEmail())
+                .flatMap(assignee -> todoRepository
+                        .save(new TodoEntity(null, request.description(), false, assignee.id(), null,
+                                assigneeSnapshots.snapshotOf(assignee)))
+                        .doOnNext(saved -> todoStatsCache.assigneeChanged(assignee.id()))
+                        .map(saved -> toResponse(saved, assignee)));
+    }
+
+    /**
+     * Bulk creation is a batch job rather than a fan-in path, so it reuses the blocking implementation
+     * on the bounded elastic scheduler instead of duplicating its per-item bookkeeping.
+     */
+    public Mono<BulkCreateTodoResponse> createTodos(List<CreateTodoRequest> requests) {
+        return Mono.fromCallable(() -> todoService.createTodos(requests))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<TodoResponse> setDone(String id, boolean done) {
+        return findAndModify(id, Update.update("done", done))
+                .doOnNext(saved -> todoStatsCache.assigneeChanged(saved.assignedUserId()))
+                .flatMap(this::toResponse);
+    }
+
+    public Mono<TodoResponse> assign(String id, AssignTodoRequest request) {
+        return userService.getUserEntityByEmail(request.newAssigneeEmail())
+                .flatMap(assignee -> writeById(id, (todoId, assignedUserId) -> mongoTemplate.findAndModify(
+                                TodoQueries.byShardKey(todoId, assignedUserId),
+                                TodoQueries.assigneeUpdate(assignee.id(), assigneeSnapshots.snapshotOf(assignee)),
+                                FindAndModifyOptions.options().returnNew(false), TodoEntity.class))
+                        .doOnNext(previous -> {
+                            todoStatsCache.assigneeChanged(previous.assignedUserId());
+                            todoStatsCache.assigneeChanged(assignee.id());
+                        })
+                        .map(previous -> toResponse(previous, assignee)));
+    }
+
+    public Mono<TodoResponse> edit(String id, EditTodoRequest request) {
+        return findAndModify(id, Update.update("description", request.description())).flatMap(this::toResponse);
+    }
+
+    public Mono<Void> deleteTodo(String id) {
+        return writeById(id, (todoId, assignedUserId) ->
+                        mongoTemplate.findAndRemove(TodoQueries.byShardKey(todoId, assignedUserId), TodoEntity.class))
+                .doOnNext(deleted -> {
+                    missingTodoCache.markMissing(id);
+                    todoStatsCache.assigneeChanged(deleted.assignedUserId());
+                })
+                .then();
+    }
+
+    private Mono<TodoEntity> findAndModify(String id, Update update) {
+        return writeById(id, (todoId, assignedUserId) -> mongoTemplate.findAndModify(
+                TodoQueries.byShardKey(todoId, assignedUserId), update,
+                FindAndModifyOptions.options().returnNew(true), TodoEntity.class));
+    }
+
+    // Same routing as TodoService.writeById: by id alone when unsharded, otherwise the assignee is read first
+    // and read again, a bounded number of times, if the todo was reassigned meanwhile
+    private Mono<TodoEntity> writeById(String id, BiFunction<String, String, Mono<TodoEntity>> write) {
+        if (missingTodoCache.isMissing(id)) {
+            return Mono.error(new EntityNotFoundException(id));
+        }
+        if (!todoSharding.isEnabled()) {
+            return Mono.defer(() -> write.apply(id, null))
+                    .switchIfEmpty(Mono.error(() -> missing(id)));
+        }
+        return Flux.range(0, TodoSharding.WRITE_ATTEMPTS)
+                .concatMap(attempt -> todoRepository.findVersionById(id)
+                        .switchIfEmpty(Mono.error(() -> missing(id)))
+                        .flatMap(todo -> write.apply(id, todo.assignedUserId())))
+                .next()
+                .switchIfEmpty(Mono.error(() -> TodoSharding.reassignedMeanwhile(id)));
+    }
+
+    private EntityNotFoundException missing(String id) {
+        missingTodoCache.markNotFound(id);
+        return new EntityNotFoundException(id);
+    }
+
+    private Mono<TodoResponse> toResponse(TodoEntity todo) {
+        AssigneeSnapshot snapshot = assigneeSnapshots.usableSnapshot(todo);
+        if (snapshot != null) {
+            return Mono.just(toResponse(todo, snapshot));
+        }
+        return userService.getUserEntityById(todo.assignedUserId())
+                .map(assignee -> toResponse(todo, assignee));
+    }
+
+    private TodoResponse toResponse(TodoEntity todo, UserEntity assignee) {
+        return new TodoResponse(
+                todo.id(),
+                todo.description(),
+                todo.done(),
+                assignee.name(),
+                assignee.email()
+        );
+    }
+
+    private TodoResponse toResponse(TodoEntity todo, AssigneeSnapshot assignee) {
+        return new TodoResponse(
+                todo.id(),
+                todo.description(),
+                todo.done(),
+                assignee.name(),
+                assignee.email()
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package ro.unibuc.prodeng.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.UserEntity;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<UserEntity, String> {
+
+    Mono<UserEntity> findByEmail(String email);
+}
@@ -0,0 +1,177 @@
+package ro.unibuc.prodeng.reactive;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ro.unibuc.prodeng.cache.EmailBloomFilter;
+import ro.unibuc.prodeng.cache.UserCache;
+import ro.unibuc.prodeng.cascade.TodoCascade;
+import ro.unibuc.prodeng.etag.ETags;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.fields.SparseFields;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.pagination.Pagination;
+import ro.unibuc.prodeng.repository.UserQueries;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.ETagged;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.UserDeletionJobResponse;
+import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.service.UserService;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
+
+/**
+ * Non-blocking counterpart of UserService for the reactive profile. It reads and maintains the same
+ * in-process UserCache, so the blocking code paths still used by this profile (bulk create) see its writes.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private AssigneeSnapshots assigneeSnapshots;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Emits every user as it is read from the Mongo cursor; demand from the HTTP response drives the cursor.
+     */
+    public Flux<UserResponse> getAllUsers() {
+        return userRepository.findAll(Sort.by("id")).map(this::toResponse);
+    }
+
+    public Mono<PageResponse<UserResponse>> getUsersPage(int limit, String cursor) {
+        return Mono.defer(() -> {
+            Pagination.checkLimit(limit);
+            return mongoTemplate.find(UserQueries.page(Pagination.decodeCursor(cursor), limit + 1), UserEntity.class)
+                    .collectList()
+                    .map(users -> Pagination.toPage(users, limit, UserEntity::id, this::toResponse));
+        });
+    }
+
+    // Sparse variants, with the projection of UserRepositoryCustomImpl.findPageAfterProjected
+    public Flux<Map<String, Object>> getSparseUsers(List<String> fields) {
+        return mongoTemplate.find(projected(UserQueries.page(null, 0), fields), UserEntity.class)
+                .map(user -> SparseFields.userRow(user, fields));
+    }
+
+    public Mono<PageResponse<Map<String, Object>>> getSparseUsersPage(List<String> fields, int limit, String cursor) {
+        return Mono.defer(() -> {
+            Pagination.checkLimit(limit);
+            Query query = projected(UserQueries.page(Pagination.decodeCursor(cursor), limit + 1), fields);
+            return mongoTemplate.find(query, UserEntity.class)
+                    .collectList()
+                    .map(users -> Pagination.toPage(users, limit, UserEntity::id, user -> SparseFields.userRow(user, fields)));
+        });
+    }
+
+    private static Query projected(Query query, List<String> fields) {
+        query.fields().include(SparseFields.userDocumentFields(fields).toArray(String[]::new));
+        return query;
+    }
+
+    public Mono<UserResponse> getUserById(String id) {
+        return getUserEntityById(id).map(this::toResponse);
+    }
+
+    public Mono<UserEntity> getUserEntityById(String id) {
+        return Mono.justOrEmpty(userCache.getById(id))
+                .switchIfEmpty(Mono.defer(() -> userRepository.findById(id).doOnNext(userCache::put)))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)));
+    }
+
+    public Mono<ETagged<UserResponse>> getTaggedUserById(String id) {
+        return getUserEntityById(id).map(this::tagged);
+    }
+
+    public Mono<UserResponse> getUserByEmail(String email) {
+        return getUserEntityByEmail(email).map(this::toResponse);
+    }
+
+    public Mono<ETagged<UserResponse>> getTaggedUserByEmail(String email) {
+        return getUserEntityByEmail(email).map(this::tagged);
+    }
+
+    public Mono<UserEntity> getUserEntityByEmail(String email) {
+        return Mono.justOrEmpty(userCache.getByEmail(email))
+                .switchIfEmpty(Mono.defer(() -> emailFilter.mightContain(email)
+                        ? userRepository.findByEmail(email).doOnNext(userCache::put)
+                        : Mono.empty()))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(email)));
+    }
+
+    public Mono<UserResponse> createUser(CreateUserRequest request) {
+        return userRepository.save(new UserEntity(null, request.name(), request.email()))
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new IllegalArgumentException("Email already exists: " + request.email()))
+                .doOnNext(saved -> {
+                    userCache.put(saved);
+                    emailFilter.put(saved.email());
+                })
+                .map(this::toResponse);
+    }
+
+    public Mono<UserResponse> changeName(String id, String newName) {
+        return mongoTemplate.findAndModify(new Query(Criteria.where("id").is(id)), Update.update("name", newName),
+                        FindAndModifyOptions.options().returnNew(true), UserEntity.class)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)))
+                .doOnNext(saved -> {
+                    userCache.put(saved);
+                    assigneeSnapshots.userChanged(saved);
+                })
+                .map(this::toResponse);
+    }
+
+    public Mono<Void> deleteUser(String id) {
+        return userRepository.existsById(id)
+                .flatMap(exists -> exists
+                        ? userRepository.deleteById(id)
+                        : Mono.error(new EntityNotFoundException(id)))
+                .doOnSuccess(ignored -> userCache.invalidate(id));
+    }
+
+    // Chunked deletes run on the job worker; only the request's own lookups and the user delete block here
+    public Mono<UserDeletionJobResponse> deleteUser(String id, TodoCascade cascade, String reassignToEmail) {
+        return Mono.fromCallable(() -> userService.deleteUser(id, cascade, reassignToEmail))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private ETagged<UserResponse> tagged(UserEntity user) {
+        return new ETagged<>(ETags.of(user), toResponse(user));
+    }
+
+    private UserResponse toResponse(UserEntity user) {
+        return new UserResponse(
+                user.id(),
+                user.name(),
+                user.email()
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package ro.unibuc.prodeng.reactive;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ServerWebInputException;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Request parsing helpers for the functional handlers, mirroring {@code @Valid @RequestBody} and
+ * {@code @RequestParam} in the servlet controllers.
+ */
+final class RequestBodies {
+
+    private RequestBodies() {
+    }
+
+    static <T> Mono<T> validBody(ServerRequest request, Class<T> type, Validator validator) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is required")))
+                .doOnNext(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        throw new IllegalArgumentException(violations.stream()
+                                .map(ConstraintViolation::getMessage)
+                                .sorted()
+                                .collect(Collectors.joining(", ")));
+                    }
+                });
+    }
+
+    static String requiredParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .orElseThrow(() -> new ServerWebInputException("Required query parameter '" + name + "' is not present"));
+    }
+
+    // Anything but true or false is rejected, where Boolean.valueOf would read it as false
+    static Boolean optionalBooleanParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .map(value -> switch (value.toLowerCase(Locale.ROOT)) {
+                    case "true" -> Boolean.TRUE;
+                    case "false" -> Boolean.FALSE;
+                    default -> throw new ServerWebInputException(
+                            "Query parameter '" + name + "' must be true or false: " + value);
+                })
+                .orElse(null);
+    }
+}
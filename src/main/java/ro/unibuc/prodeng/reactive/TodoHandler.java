@@ -0,0 +1,167 @@
+package ro.unibuc.prodeng.reactive;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+
+import jakarta.validation.Validator;
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.etag.ETags;
+import ro.unibuc.prodeng.fields.SparseFields;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.TodoResponse;
+
+import static ro.unibuc.prodeng.reactive.ListResponses.list;
+import static ro.unibuc.prodeng.reactive.ListResponses.page;
+import static ro.unibuc.prodeng.reactive.RequestBodies.optionalBooleanParam;
+import static ro.unibuc.prodeng.reactive.RequestBodies.requiredParam;
+import static ro.unibuc.prodeng.reactive.RequestBodies.validBody;
+
+@Component
+@Profile("reactive")
+public class TodoHandler {
+
+    private static final ParameterizedTypeReference<List<CreateTodoRequest>> CREATE_TODO_LIST =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<Map<String, Object>> SPARSE_ROW =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private ReactiveTodoService todoService;
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private Validator validator;
+
+    public Mono<ServerResponse> getTodosByUserEmail(ServerRequest request) {
+        String email = requiredParam(request, "assigneeEmail");
+        Boolean done = optionalBooleanParam(request, "done");
+        // The list is streamed, so its tag always comes from the version projection read before the todos;
+        // a write in between only makes the next poll a full one
+        return userService.getUserEntityByEmail(email)
+                .flatMap(assignee -> todoService.getTodosETag(assignee, done)
+                        .flatMap(eTag -> ETags.matches(ifNoneMatch(request), eTag)
+                                ? notModified(eTag)
+                                : list(request, ServerResponse.ok().eTag(eTag),
+                                        todoService.getTodosByAssignee(assignee, done), TodoResponse.class)));
+    }
+
+    public Mono<ServerResponse> getTodosPageByUserEmail(ServerRequest request) {
+        String email = requiredParam(request, "assigneeEmail");
+        Boolean done = optionalBooleanParam(request, "done");
+        int limit = Integer.parseInt(requiredParam(request, "limit"));
+        String cursor = request.queryParam("cursor").orElse(null);
+        return todoService.getTodosPageByUserEmail(email, done, limit, cursor)
+                .flatMap(page -> page(request, ServerResponse.ok(), page));
+    }
+
+    // Sparse lists are not tagged, like their servlet counterparts
+    public Mono<ServerResponse> getSparseTodosByUserEmail(ServerRequest request) {
+        String email = requiredParam(request, "assigneeEmail");
+        Boolean done = optionalBooleanParam(request, "done");
+        List<String> fields = SparseFields.parse(requiredParam(request, "fields"), SparseFields.TODO_FIELDS);
+        return userService.getUserEntityByEmail(email)
+                .flatMap(assignee -> list(request, ServerResponse.ok(),
+                        todoService.getSparseTodosByAssignee(assignee, done, fields), SPARSE_ROW));
+    }
+
+    public Mono<ServerResponse> getSparseTodosPageByUserEmail(ServerRequest request) {
+        String email = requiredParam(request, "assigneeEmail");
+        Boolean done = optionalBooleanParam(request, "done");
+        List<String> fields = SparseFields.parse(requiredParam(request, "fields"), SparseFields.TODO_FIELDS);
+        int limit = Integer.parseInt(requiredParam(request, "limit"));
+        String cursor = request.queryParam("cursor").orElse(null);
+        return todoService.getSparseTodosPageByUserEmail(email, done, fields, limit, cursor)
+                .flatMap(page -> page(request, ServerResponse.ok(), page));
+    }
+
+    public Mono<ServerResponse> getTodoStats(ServerRequest request) {
+        int limit = Integer.parseInt(request.queryParam("limit").orElse("100"));
+        String cursor = request.queryParam("cursor").orElse(null);
+        return todoService.getTodoStats(limit, cursor)
+                .flatMap(stats -> page(request, ServerResponse.ok(), stats));
+    }
+
+    public Mono<ServerResponse> searchTodos(ServerRequest request) {
+        String text = requiredParam(request, "q");
+        String assigneeEmail = request.queryParam("assigneeEmail").orElse(null);
+        Boolean done = optionalBooleanParam(request, "done");
+        int limit = Integer.parseInt(request.queryParam("limit").orElse("20"));
+        String cursor = request.queryParam("cursor").orElse(null);
+        return todoService.searchTodos(text, assigneeEmail, done, limit, cursor)
+                .flatMap(page -> page(request, ServerResponse.ok(), page));
+    }
+
+    public Mono<ServerResponse> getTodoById(ServerRequest request) {
+        String id = request.pathVariable("id");
+        Mono<ServerResponse> full = todoService.getTaggedTodoById(id)
+                .flatMap(todo -> ServerResponse.ok().eTag(todo.eTag()).bodyValue(todo.body()));
+        String ifNoneMatch = ifNoneMatch(request);
+        if (ifNoneMatch == null) {
+            return full;
+        }
+        return todoService.getTodoETag(id)
+                .flatMap(eTag -> ETags.matches(ifNoneMatch, eTag) ? notModified(eTag) : full);
+    }
+
+    public Mono<ServerResponse> createTodo(ServerRequest request) {
+        return validBody(request, CreateTodoRequest.class, validator)
+                .flatMap(todoService::createTodo)
+                .flatMap(todo -> ServerResponse.status(201).bodyValue(todo));
+    }
+
+    public Mono<ServerResponse> createTodos(ServerRequest request) {
+        return request.bodyToMono(CREATE_TODO_LIST)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is required")))
+                .flatMap(todoService::createTodos)
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> setDone(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return request.bodyToMono(Boolean.class)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is required")))
+                .flatMap(done -> todoService.setDone(id, done))
+                .flatMap(todo -> ServerResponse.ok().bodyValue(todo));
+    }
+
+    public Mono<ServerResponse> assign(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return validBody(request, AssignTodoRequest.class, validator)
+                .flatMap(body -> todoService.assign(id, body))
+                .flatMap(todo -> ServerResponse.ok().bodyValue(todo));
+    }
+
+    public Mono<ServerResponse> edit(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return validBody(request, EditTodoRequest.class, validator)
+                .flatMap(body -> todoService.edit(id, body))
+                .flatMap(todo -> ServerResponse.ok().bodyValue(todo));
+    }
+
+    public Mono<ServerResponse> deleteTodo(ServerRequest request) {
+        return todoService.deleteTodo(request.pathVariable("id"))
+                .then(ServerResponse.noContent().build());
+    }
+
+    private static String ifNoneMatch(ServerRequest request) {
+        return request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+    }
+
+    private static Mono<ServerResponse> notModified(String eTag) {
+        return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+}
@@ -0,0 +1,107 @@
+package ro.unibuc.prodeng.reactive;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import jakarta.validation.Validator;
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.cascade.TodoCascade;
+import ro.unibuc.prodeng.fields.SparseFields;
+import ro.unibuc.prodeng.request.ChangeNameRequest;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.UserResponse;
+
+import static ro.unibuc.prodeng.reactive.ListResponses.list;
+import static ro.unibuc.prodeng.reactive.ListResponses.page;
+import static ro.unibuc.prodeng.reactive.RequestBodies.requiredParam;
+import static ro.unibuc.prodeng.reactive.RequestBodies.validBody;
+
+@Component
+@Profile("reactive")
+public class UserHandler {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> SPARSE_ROW =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private Validator validator;
+
+    public Mono<ServerResponse> getAllUsers(ServerRequest request) {
+        return list(request, ServerResponse.ok(), userService.getAllUsers(), UserResponse.class);
+    }
+
+    public Mono<ServerResponse> getUsersPage(ServerRequest request) {
+        int limit = Integer.parseInt(requiredParam(request, "limit"));
+        String cursor = request.queryParam("cursor").orElse(null);
+        return userService.getUsersPage(limit, cursor)
+                .flatMap(page -> page(request, ServerResponse.ok(), page));
+    }
+
+    public Mono<ServerResponse> getSparseUsers(ServerRequest request) {
+        List<String> fields = SparseFields.parse(requiredParam(request, "fields"), SparseFields.USER_FIELDS);
+        return list(request, ServerResponse.ok(), userService.getSparseUsers(fields), SPARSE_ROW);
+    }
+
+    public Mono<ServerResponse> getSparseUsersPage(ServerRequest request) {
+        List<String> fields = SparseFields.parse(requiredParam(request, "fields"), SparseFields.USER_FIELDS);
+        int limit = Integer.parseInt(requiredParam(request, "limit"));
+        String cursor = request.queryParam("cursor").orElse(null);
+        return userService.getSparseUsersPage(fields, limit, cursor)
+                .flatMap(page -> page(request, ServerResponse.ok(), page));
+    }
+
+    public Mono<ServerResponse> streamAllUsers(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService.getAllUsers(), UserResponse.class);
+    }
+
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        return userService.getTaggedUserById(request.pathVariable("id"))
+                .flatMap(user -> ServerResponse.ok().eTag(user.eTag()).bodyValue(user.body()));
+    }
+
+    public Mono<ServerResponse> getUserByEmail(ServerRequest request) {
+        return userService.getTaggedUserByEmail(requiredParam(request, "email"))
+                .flatMap(user -> ServerResponse.ok().eTag(user.eTag()).bodyValue(user.body()));
+    }
+
+    public Mono<ServerResponse> createUser(ServerRequest request) {
+        return validBody(request, CreateUserRequest.class, validator)
+                .flatMap(userService::createUser)
+                .flatMap(user -> ServerResponse.status(201).bodyValue(user));
+    }
+
+    public Mono<ServerResponse> changeName(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return validBody(request, ChangeNameRequest.class, validator)
+                .flatMap(body -> userService.changeName(id, body.name()))
+                .flatMap(user -> ServerResponse.ok().bodyValue(user));
+    }
+
+    public Mono<ServerResponse> deleteUser(ServerRequest request) {
+        return userService.deleteUser(request.pathVariable("id"))
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> deleteUserCascading(ServerRequest request) {
+        return Mono.fromCallable(() -> TodoCascade.fromParameter(requiredParam(request, "todos")))
+                .flatMap(cascade -> userService.deleteUser(request.pathVariable("id"), cascade,
+                        request.queryParam("reassignTo").orElse(null)))
+                .flatMap(job -> ServerResponse.accepted()
+                        .location(URI.create("/actuator/userdeletions/" + job.id()))
+                        .bodyValue(job));
+    }
+}
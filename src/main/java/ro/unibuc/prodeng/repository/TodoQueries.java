@@ -0,0 +1,62 @@
+package ro.unibuc.prodeng.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+
+/**
+ * Todo queries and updates shared by the blocking repository and the reactive service, so that both stacks
+ * send Mongo the same commands.
+ */
+public final class TodoQueries {
+
+    private TodoQueries() {
+    }
+
+    // Served by the {assignedUserId, done, _id} / {assignedUserId, _id} indexes declared on TodoEntity
+    public static Query page(String assignedUserId, Boolean done, String afterId, int limit) {
+        Query query = ofAssignee(assignedUserId, done)
+                .with(Sort.by("id"))
+                .limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        return query;
+    }
+
+    // The assignee's todos, or only those with the given done state when it is not null
+    public static Query ofAssignee(String assignedUserId, Boolean done) {
+        Query query = new Query(Criteria.where("assignedUserId").is(assignedUserId));
+        if (done != null) {
+            query.addCriteria(Criteria.where("done").is(done));
+        }
+        return query;
+    }
+
+    public static Query byId(String id) {
+        return new Query(Criteria.where("id").is(id));
+    }
+
+    // The full shard key, so the write is routed to the one shard holding the todo; the id alone when the
+    // assignee is null, which only an unsharded collection can route
+    public static Query byShardKey(String id, String assignedUserId) {
+        if (assignedUserId == null) {
+            return byId(id);
+        }
+        return new Query(Criteria.where("id").is(id).and("assignedUserId").is(assignedUserId));
+    }
+
+    // A null snapshot removes any snapshot of the previous assignee
+    public static Update assigneeUpdate(String assignedUserId, AssigneeSnapshot snapshot) {
+        Update update = Update.update("assignedUserId", assignedUserId);
+        if (snapshot != null) {
+            update.set("assignee", snapshot);
+        } else {
+            update.unset("assignee");
+        }
+        return update;
+    }
+}
@@ -7,7 +7,11 @@ import org.springframework.stereotype.Repository;
 import ro.unibuc.prodeng.model.TodoEntity;
 
 @Repository
-public interface TodoRepository extends MongoRepository<TodoEntity, String> {
+public interface TodoRepository extends MongoRepository<TodoEntity, String>, TodoRepositoryCustom {
 
     List<TodoEntity> findByAssignedUserId(String assignedUserId);
+
+    List<TodoEntity> findByAssignedUserIdAndDone(String assignedUserId, boolean done);
+
+    boolean existsByAssignedUserId(String assignedUserId);
 }
@@ -0,0 +1,97 @@
+package ro.unibuc.prodeng.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoSearchHit;
+import ro.unibuc.prodeng.model.TodoStats;
+import ro.unibuc.prodeng.model.TodoVersion;
+import ro.unibuc.prodeng.model.UserEntity;
+
+public interface TodoRepositoryCustom {
+
+    List<TodoEntity> findPage(String assignedUserId, Boolean done, String afterId, int limit);
+
+    /**
+     * Same query reading only the given fields, which have to include done; fields left out are null in the
+     * returned todos. A limit of 0 returns all of the assignee's todos.
+     */
+    List<TodoEntity> findPageProjected(String assignedUserId, Boolean done, String afterId, int limit, Collection<String> fields);
+
+    // Version-only projections, read to answer conditional requests
+
+    Optional<TodoVersion> findVersion(String id);
+
+    List<TodoVersion> findVersions(String assignedUserId, Boolean done);
+
+    /**
+     * Todos whose description matches the text search, best score first and then by id, optionally restricted
+     * to an assignee and done state. Pages continue after the given score and id when they are not null.
+     */
+    List<TodoSearchHit> search(String text, String assignedUserId, Boolean done, Double afterScore, String afterId, int limit);
+
+    /**
+     * Per-assignee open/done counts with the assignee's name and email, computed by one aggregation.
+     * Pages are ordered by assignee id and start after {@code afterUserId} when it is not null.
+     */
+    List<TodoStats> findStatsPage(String afterUserId, int limit);
+
+    // Same aggregation restricted to the given assignees, or over all assignees when null
+    List<TodoStats> findStats(Collection<String> assignedUserIds);
+
+    /**
+     * Inserts the todos with a single unordered bulk write.
+     * Returns the error message of every todo that could not be inserted, keyed by its position in the list.
+     */
+    Map<Integer, String> insertUnordered(List<TodoEntity> todos);
+
+    // Single-round-trip field updates filtered on the full shard key: each takes the todo's current assignee
+    // along with its id, and returns the updated document, or empty if no todo has that id and assignee.
+    // A null assignee matches the id alone, for an unsharded collection
+
+    Optional<TodoEntity> updateDone(String id, String assignedUserId, boolean done);
+
+    /**
+     * Writes the done flag of each given todo with a single unordered bulk write, bumping their version as
+     * findAndModify would. Todos that no longer exist or have been reassigned since are skipped; returns the
+     * number of todos matched.
+     */
+    long updateDoneAll(Collection<TodoEntity> todos);
+
+    // Current assignee of each of the given todos that still exists, by todo id
+    Map<String, String> findAssignees(Collection<String> ids);
+
+    // Moves the todo to another shard key value and returns it as it was before the move, so callers know the
+    // previous assignee; a null snapshot removes any snapshot of the previous assignee
+    Optional<TodoEntity> updateAssignee(String id, String fromUserId, String toUserId, AssigneeSnapshot snapshot);
+
+    /**
+     * Rewrites the assignee snapshot of every todo assigned to the given users with a single unordered bulk
+     * of updateMany operations. Snapshots copied from the same or a newer user version are left alone, so
+     * late or repeated calls never roll a snapshot back. Returns the number of todos updated.
+     */
+    long updateAssigneeSnapshots(Collection<UserEntity> users);
+
+    Optional<TodoEntity> updateDescription(String id, String assignedUserId, String description);
+
+    // Same filter; returns the deleted todo, or empty if no todo has that id and assignee
+    Optional<TodoEntity> deleteOne(String id, String assignedUserId);
+
+    /**
+     * Deletes up to {@code limit} todos of the assignee, lowest ids first: their ids are read from the
+     * {assignedUserId, _id} index and removed by one deleteMany. Returns the ids read; fewer than
+     * {@code limit} means the assignee has no todos left.
+     */
+    List<String> deleteChunkOfAssignee(String assignedUserId, int limit);
+
+    /**
+     * Same chunking, moving the todos to another assignee; a null snapshot removes it. A shard key value can
+     * only be changed one document at a time, so the chunk is written as one unordered bulk of updateOne
+     * operations rather than one updateMany.
+     */
+    List<String> reassignChunkOfAssignee(String fromUserId, String toUserId, AssigneeSnapshot snapshot, int limit);
+}
@@ -0,0 +1,283 @@
+package ro.unibuc.prodeng.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.bulk.BulkWriteError;
+
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoSearchHit;
+import ro.unibuc.prodeng.model.TodoStats;
+import ro.unibuc.prodeng.model.TodoVersion;
+import ro.unibuc.prodeng.model.UserEntity;
+
+public class TodoRepositoryCustomImpl implements TodoRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<TodoEntity> findPage(String assignedUserId, Boolean done, String afterId, int limit) {
+        return mongoTemplate.find(TodoQueries.page(assignedUserId, done, afterId, limit), TodoEntity.class);
+    }
+
+    @Override
+    public List<TodoEntity> findPageProjected(String assignedUserId, Boolean done, String afterId, int limit, Collection<String> fields) {
+        Query query = TodoQueries.page(assignedUserId, done, afterId, limit);
+        query.fields().include(fields.toArray(String[]::new));
+        return mongoTemplate.find(query, TodoEntity.class);
+    }
+
+    @Override
+    public Optional<TodoVersion> findVersion(String id) {
+        return mongoTemplate.query(TodoEntity.class)
+                .as(TodoVersion.class)
+                .matching(TodoQueries.byId(id))
+                .one();
+    }
+
+    // Same filter as the unpaged list, so it is served by the same index
+    @Override
+    public List<TodoVersion> findVersions(String assignedUserId, Boolean done) {
+        return mongoTemplate.query(TodoEntity.class)
+                .as(TodoVersion.class)
+                .matching(TodoQueries.ofAssignee(assignedUserId, done))
+                .all();
+    }
+
+    /**
+     * Matches through the text index, with the assignee and done filters applied to the matches. Mongo has to
+     * score every match before it can sort them, so a page costs the whole match set; the keyset on (score, _id)
+     * at least keeps later pages from also returning and skipping the earlier ones.
+     */
+    @Override
+    public List<TodoSearchHit> search(String text, String assignedUserId, Boolean done, Double afterScore, String afterId, int limit) {
+        Document match = new Document("$text", new Document("$search", text));
+        if (assignedUserId != null) {
+            match.append("assignedUserId", assignedUserId);
+        }
+        if (done != null) {
+            match.append("done", done);
+        }
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(stage("$match", match));
+        stages.add(stage("$addFields", new Document("score", new Document("$meta", "textScore"))));
+        if (afterId != null) {
+            stages.add(stage("$match", new Document("$or", List.of(
+                    new Document("score", new Document("$lt", afterScore)),
+                    new Document("score", afterScore).append("_id", new Document("$gt", new ObjectId(afterId)))))));
+        }
+        stages.add(stage("$sort", new Document("score", -1).append("_id", 1)));
+        stages.add(stage("$limit", limit));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), "todos", TodoSearchHit.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public List<TodoStats> findStatsPage(String afterUserId, int limit) {
+        Document match = afterUserId != null
+                ? new Document("assignedUserId", new Document("$gt", afterUserId))
+                : new Document();
+        return aggregateStats(match, limit);
+    }
+
+    @Override
+    public List<TodoStats> findStats(Collection<String> assignedUserIds) {
+        Document match = assignedUserIds != null
+                ? new Document("assignedUserId", new Document("$in", assignedUserIds))
+                : new Document();
+        return aggregateStats(match, 0);
+    }
+
+    /**
+     * Counts per (assignee, done) pair, folds the pairs into one row per assignee and joins the assignee.
+     * Sorting on {assignedUserId, done} first lets the whole grouping run as a covered scan of the
+     * {assignedUserId, done, _id} index, so no todo document is fetched; only the page's assignees are
+     * looked up. A page still scans the index entries of every assignee after the cursor.
+     */
+    private List<TodoStats> aggregateStats(Document match, int limit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (!match.isEmpty()) {
+            stages.add(stage("$match", match));
+        }
+        stages.add(stage("$sort", new Document("assignedUserId", 1).append("done", 1)));
+        stages.add(stage("$group", new Document("_id", new Document("assignedUserId", "$assignedUserId").append("done", "$done"))
+                .append("count", new Document("$sum", 1))));
+        stages.add(stage("$group", new Document("_id", "$_id.assignedUserId")
+                .append("open", new Document("$sum", new Document("$cond", List.of("$_id.done", 0, "$count"))))
+                .append("done", new Document("$sum", new Document("$cond", List.of("$_id.done", "$count", 0))))));
+        stages.add(stage("$sort", new Document("_id", 1)));
+        if (limit > 0) {
+            stages.add(stage("$limit", limit));
+        }
+        // Todos reference users by the hex string of their ObjectId
+        stages.add(stage("$addFields", new Document("userId", new Document("$convert",
+                new Document("input", "$_id").append("to", "objectId").append("onError", null)))));
+        stages.add(stage("$lookup", new Document("from", "users")
+                .append("localField", "userId")
+                .append("foreignField", "_id")
+                .append("as", "user")));
+        stages.add(stage("$project", new Document("open", 1)
+                .append("done", 1)
+                .append("name", new Document("$arrayElemAt", List.of("$user.name", 0)))
+                .append("email", new Document("$arrayElemAt", List.of("$user.email", 0)))));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), "todos", TodoStats.class)
+                .getMappedResults();
+    }
+
+    private static AggregationOperation stage(String operator, Object body) {
+        return context -> new Document(operator, body);
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<TodoEntity> todos) {
+        if (todos.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, TodoEntity.class)
+                    .insert(todos)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public Optional<TodoEntity> updateDone(String id, String assignedUserId, boolean done) {
+        return findAndModify(id, assignedUserId, Update.update("done", done));
+    }
+
+    // Bulk updates don't increment @Version on their own, and ETags are derived from it
+    @Override
+    public long updateDoneAll(Collection<TodoEntity> todos) {
+        if (todos.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, TodoEntity.class);
+        for (TodoEntity todo : todos) {
+            bulk.updateOne(TodoQueries.byShardKey(todo.id(), todo.assignedUserId()),
+                    Update.update("done", todo.done()).inc("version", 1));
+        }
+        return bulk.execute().getMatchedCount();
+    }
+
+    // Looked up by id alone, so every shard is asked
+    @Override
+    public Map<String, String> findAssignees(Collection<String> ids) {
+        Map<String, String> assignees = new HashMap<>();
+        mongoTemplate.query(TodoEntity.class)
+                .as(TodoVersion.class)
+                .matching(new Query(Criteria.where("id").in(ids)))
+                .all()
+                .forEach(todo -> assignees.put(todo.id(), todo.assignedUserId()));
+        return assignees;
+    }
+
+    // Changing a shard key value needs a retryable write filtered on the full key, which findAndModify is
+    @Override
+    public Optional<TodoEntity> updateAssignee(String id, String fromUserId, String toUserId, AssigneeSnapshot snapshot) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(TodoQueries.byShardKey(id, fromUserId),
+                TodoQueries.assigneeUpdate(toUserId, snapshot), FindAndModifyOptions.options().returnNew(false),
+                TodoEntity.class));
+    }
+
+    // Each updateMany is served by the {assignedUserId, _id} index
+    @Override
+    public long updateAssigneeSnapshots(Collection<UserEntity> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, TodoEntity.class);
+        for (UserEntity user : users) {
+            AssigneeSnapshot snapshot = AssigneeSnapshot.of(user);
+            Query query = new Query(Criteria.where("assignedUserId").is(user.id())
+                    .orOperator(Criteria.where("assignee").is(null),
+                            Criteria.where("assignee.userVersion").lt(snapshot.userVersion())));
+            bulk.updateMulti(query, Update.update("assignee", snapshot));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public Optional<TodoEntity> updateDescription(String id, String assignedUserId, String description) {
+        return findAndModify(id, assignedUserId, Update.update("description", description));
+    }
+
+    @Override
+    public Optional<TodoEntity> deleteOne(String id, String assignedUserId) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(TodoQueries.byShardKey(id, assignedUserId), TodoEntity.class));
+    }
+
+    @Override
+    public List<String> deleteChunkOfAssignee(String assignedUserId, int limit) {
+        List<String> ids = findIdsOfAssignee(assignedUserId, limit);
+        if (!ids.isEmpty()) {
+            mongoTemplate.remove(chunkOf(assignedUserId, ids), TodoEntity.class);
+        }
+        return ids;
+    }
+
+    // Like the other bulk updates, bumps the version the ETags are derived from
+    @Override
+    public List<String> reassignChunkOfAssignee(String fromUserId, String toUserId, AssigneeSnapshot snapshot, int limit) {
+        List<String> ids = findIdsOfAssignee(fromUserId, limit);
+        if (!ids.isEmpty()) {
+            Update update = TodoQueries.assigneeUpdate(toUserId, snapshot).inc("version", 1);
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, TodoEntity.class);
+            // Keeps the old assignee in each filter, so a todo reassigned meanwhile by someone else is left alone
+            ids.forEach(id -> bulk.updateOne(TodoQueries.byShardKey(id, fromUserId), update));
+            bulk.execute();
+        }
+        return ids;
+    }
+
+    private List<String> findIdsOfAssignee(String assignedUserId, int limit) {
+        Query query = new Query(Criteria.where("assignedUserId").is(assignedUserId))
+                .with(Sort.by("id"))
+                .limit(limit);
+        return mongoTemplate.query(TodoEntity.class)
+                .as(TodoVersion.class)
+                .matching(query)
+                .all()
+                .stream()
+                .map(TodoVersion::id)
+                .toList();
+    }
+
+    // Keeps the assignee in the filter so a todo reassigned meanwhile by someone else is left alone
+    private static Query chunkOf(String assignedUserId, List<String> ids) {
+        return new Query(Criteria.where("id").in(ids).and("assignedUserId").is(assignedUserId));
+    }
+
+    // $set only the given fields so concurrent updates of other fields are not overwritten
+    private Optional<TodoEntity> findAndModify(String id, String assignedUserId, Update update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                TodoQueries.byShardKey(id, assignedUserId), update, FindAndModifyOptions.options().returnNew(true), TodoEntity.class));
+    }
+}
@@ -0,0 +1,23 @@
+package ro.unibuc.prodeng.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * User queries shared by the blocking repository and the reactive service.
+ */
+public final class UserQueries {
+
+    private UserQueries() {
+    }
+
+    // Keyset page in id order; a limit of 0 reads all users
+    public static Query page(String afterId, int limit) {
+        Query query = new Query().with(Sort.by("id")).limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        return query;
+    }
+}
@@ -1,5 +1,7 @@
 package ro.unibuc.prodeng.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -7,7 +9,9 @@ import org.springframework.stereotype.Repository;
 import ro.unibuc.prodeng.model.UserEntity;
 
 @Repository
-public interface UserRepository extends MongoRepository<UserEntity, String> {
+public interface UserRepository extends MongoRepository<UserEntity, String>, UserRepositoryCustom {
 
     Optional<UserEntity> findByEmail(String email);
+
+    List<UserEntity> findByEmailIn(Collection<String> emails);
 }
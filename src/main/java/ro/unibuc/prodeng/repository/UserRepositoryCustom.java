@@ -0,0 +1,23 @@
+package ro.unibuc.prodeng.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import ro.unibuc.prodeng.model.UserEntity;
+
+public interface UserRepositoryCustom {
+
+    List<UserEntity> findPageAfter(String afterId, int limit);
+
+    // Same query reading only the given fields; a limit of 0 returns every user after afterId
+    List<UserEntity> findPageAfterProjected(String afterId, int limit, Collection<String> fields);
+
+    Stream<UserEntity> streamAll();
+
+    Stream<String> streamAllEmails();
+
+    // Returns the updated user, or empty if the id does not exist
+    Optional<UserEntity> updateName(String id, String name);
+}
@@ -0,0 +1,59 @@
+package ro.unibuc.prodeng.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import ro.unibuc.prodeng.model.UserEntity;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<UserEntity> findPageAfter(String afterId, int limit) {
+        return mongoTemplate.find(UserQueries.page(afterId, limit), UserEntity.class);
+    }
+
+    @Override
+    public List<UserEntity> findPageAfterProjected(String afterId, int limit, Collection<String> fields) {
+        Query query = UserQueries.page(afterId, limit);
+        query.fields().include(fields.toArray(String[]::new));
+        return mongoTemplate.find(query, UserEntity.class);
+    }
+
+    @Override
+    public Stream<UserEntity> streamAll() {
+        Query query = new Query().with(Sort.by("id")).cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, UserEntity.class);
+    }
+
+    // Projection-only scan: the server sends just the email of each user
+    @Override
+    public Stream<String> streamAllEmails() {
+        Query query = new Query().cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include("email").exclude("_id");
+        return mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(UserEntity.class))
+                .map(document -> document.getString("email"));
+    }
+
+    // findAndModify also increments the version, and never turns into an insert for documents without one
+    @Override
+    public Optional<UserEntity> updateName(String id, String name) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(Criteria.where("id").is(id)),
+                Update.update("name", name), FindAndModifyOptions.options().returnNew(true), UserEntity.class));
+    }
+}
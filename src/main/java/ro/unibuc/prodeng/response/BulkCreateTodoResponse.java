@@ -0,0 +1,17 @@
+package ro.unibuc.prodeng.response;
+
+import java.util.List;
+
+public record BulkCreateTodoResponse(
+    int created,
+    int failed,
+    List<ItemResult> results
+) {
+
+    public record ItemResult(
+        int index,
+        boolean created,
+        String id,
+        String error
+    ) {}
+}
@@ -0,0 +1,6 @@
+package ro.unibuc.prodeng.response;
+
+public record ETagged<T>(
+    String eTag,
+    T body
+) {}
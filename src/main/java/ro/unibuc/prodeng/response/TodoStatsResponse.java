@@ -0,0 +1,9 @@
+package ro.unibuc.prodeng.response;
+
+public record TodoStatsResponse(
+    String userId,
+    String name,
+    String email,
+    long open,
+    long done
+) {}
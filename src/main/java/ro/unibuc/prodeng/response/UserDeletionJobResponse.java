@@ -0,0 +1,15 @@
+package ro.unibuc.prodeng.response;
+
+import java.time.Instant;
+
+public record UserDeletionJobResponse(
+    String id,
+    String userId,
+    String todos,
+    String reassignToUserId,
+    String status,
+    long todosProcessed,
+    Instant submittedAt,
+    Instant finishedAt,
+    String error
+) {}
@@ -0,0 +1,83 @@
+package ro.unibuc.prodeng.seed;
+
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.UserRepository;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.service.TodoService;
+import ro.unibuc.prodeng.service.UserService;
+
+/**
+ * Seeds the demo user and todo once the application is ready, on a background thread so that neither startup
+ * nor readiness waits on Mongo. Seeding is idempotent across restarts and replicas: the unique index on email
+ * lets exactly one replica create the user, and only that replica creates the todo. A later start that finds the
+ * user without its todo (the earlier run failed in between) creates just the todo.
+ */
+@Component
+public class DemoDataSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(DemoDataSeeder.class);
+
+    static final String EMAIL = "frodo@theshire.me";
+    static final String TODO = "Take the ring to Mordor";
+
+    private final boolean enabled;
+    private final UserRepository userRepository;
+    private final TodoRepository todoRepository;
+    private final UserService userService;
+    private final TodoService todoService;
+
+    public DemoDataSeeder(@Value("${seed.demo-data.enabled:true}") boolean enabled,
+                          UserRepository userRepository,
+                          TodoRepository todoRepository,
+                          UserService userService,
+                          TodoService todoService) {
+        this.enabled = enabled;
+        this.userRepository = userRepository;
+        this.todoRepository = todoRepository;
+        this.userService = userService;
+        this.todoService = todoService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread.ofPlatform().daemon().name("demo-data-seeder").start(this::seed);
+        }
+    }
+
+    void seed() {
+        try {
+            Optional<UserEntity> existing = userRepository.findByEmail(EMAIL);
+            if (existing.isPresent()) {
+                if (!todoRepository.existsByAssignedUserId(existing.get().id())) {
+                    todoService.createTodo(new CreateTodoRequest(TODO, EMAIL));
+                    log.info("Seeded missing demo todo for {}", EMAIL);
+                }
+                return;
+            }
+            try {
+                userService.createUser(new CreateUserRequest("Frodo Baggins", EMAIL));
+            } catch (IllegalArgumentException e) {
+                // Another replica created the user first and seeds the todo itself
+                return;
+            }
+            todoService.createTodo(new CreateTodoRequest(TODO, EMAIL));
+            log.info("Seeded demo user {}", EMAIL);
+        } catch (DataAccessException | EntityNotFoundException e) {
+            log.warn("Could not seed demo data", e);
+        }
+    }
+}
@@ -1,41 +1,240 @@
 package ro.unibuc.prodeng.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import ro.unibuc.prodeng.cache.MissingTodoCache;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.etag.ETags;
+import ro.unibuc.prodeng.fields.SparseFields;
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
 import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoSearchHit;
+import ro.unibuc.prodeng.model.TodoStats;
+import ro.unibuc.prodeng.model.TodoVersion;
+import ro.unibuc.prodeng.pagination.Pagination;
 import ro.unibuc.prodeng.repository.TodoRepository;
 import ro.unibuc.prodeng.model.UserEntity;
 import ro.unibuc.prodeng.request.AssignTodoRequest;
 import ro.unibuc.prodeng.request.CreateTodoRequest;
 import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.BulkCreateTodoResponse;
+import ro.unibuc.prodeng.response.BulkCreateTodoResponse.ItemResult;
+import ro.unibuc.prodeng.response.ETagged;
+import ro.unibuc.prodeng.response.PageResponse;
 import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.response.TodoStatsResponse;
+import ro.unibuc.prodeng.sharding.TodoSharding;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
+import ro.unibuc.prodeng.writebehind.DoneWriteBehind;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
 
 @Service
 public class TodoService {
 
+    public static final int MAX_BULK_SIZE = 5000;
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     @Autowired
     private TodoRepository todoRepository;
 
     @Autowired
     private UserService userService;
 
-    public List<TodoResponse> getTodosByUserEmail(String email) throws EntityNotFoundException {
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MissingTodoCache missingTodoCache;
+
+    @Autowired
+    private AssigneeSnapshots assigneeSnapshots;
+
+    @Autowired
+    private TodoStatsCache todoStatsCache;
+
+    @Autowired
+    private DoneWriteBehind doneWriteBehind;
+
+    @Autowired
+    private TodoSharding todoSharding;
+
+    public List<TodoResponse> getTodosByUserEmail(String email, Boolean done) throws EntityNotFoundException {
+        return getTaggedTodosByUserEmail(email, done).body();
+    }
+
+    public ETagged<List<TodoResponse>> getTaggedTodosByUserEmail(String email, Boolean done) throws EntityNotFoundException {
         UserEntity user = userService.getUserEntityByEmail(email);
-        List<TodoEntity> todos = todoRepository.findByAssignedUserId(user.id());
-        return todos.stream()
+        doneWriteBehind.flushAssignee(user.id());
+        List<TodoEntity> todos = done == null
+                ? todoRepository.findByAssignedUserId(user.id())
+                : todoRepository.findByAssignedUserIdAndDone(user.id(), done);
+        String eTag = ETags.ofList(user, todos.stream().map(TodoService::toVersion).toList());
+        return new ETagged<>(eTag, todos.stream()
                 .map(todo -> toResponse(todo, user))
+                .toList());
+    }
+
+    // Current tag of the list from a version-only projection, without reading the todos themselves
+    public String getTodosETag(String email, Boolean done) throws EntityNotFoundException {
+        UserEntity user = userService.getUserEntityByEmail(email);
+        doneWriteBehind.flushAssignee(user.id());
+        return ETags.ofList(user, todoRepository.findVersions(user.id(), done));
+    }
+
+    public PageResponse<TodoResponse> getTodosPageByUserEmail(String email, Boolean done, int limit, String cursor)
+            throws EntityNotFoundException {
+        Pagination.checkLimit(limit);
+        UserEntity user = userService.getUserEntityByEmail(email);
+        doneWriteBehind.flushAssignee(user.id());
+        List<TodoEntity> todos = todoRepository.findPage(user.id(), done, Pagination.decodeCursor(cursor), limit + 1);
+        return Pagination.toPage(todos, limit, TodoEntity::id, todo -> toResponse(todo, user));
+    }
+
+    /**
+     * Sparse variants of the list and page reads: only the todo fields behind the requested response fields
+     * are read, and rows hold just those fields. They are not tagged, so they don't answer conditional requests.
+     */
+    public List<Map<String, Object>> getSparseTodosByUserEmail(String email, Boolean done, String fields)
+            throws EntityNotFoundException {
+        List<String> requested = SparseFields.parse(fields, SparseFields.TODO_FIELDS);
+        UserEntity user = userService.getUserEntityByEmail(email);
+        doneWriteBehind.flushAssignee(user.id());
+        return todoRepository.findPageProjected(user.id(), done, null, 0, SparseFields.todoDocumentFields(requested))
+                .stream()
+                .map(todo -> SparseFields.todoRow(todo, user, requested))
                 .toList();
     }
 
+    public PageResponse<Map<String, Object>> getSparseTodosPageByUserEmail(String email, Boolean done, String fields,
+                                                                          int limit, String cursor)
+            throws EntityNotFoundException {
+        Pagination.checkLimit(limit);
+        List<String> requested = SparseFields.parse(fields, SparseFields.TODO_FIELDS);
+        UserEntity user = userService.getUserEntityByEmail(email);
+        doneWriteBehind.flushAssignee(user.id());
+        List<TodoEntity> todos = todoRepository.findPageProjected(user.id(), done, Pagination.decodeCursor(cursor),
+                limit + 1, SparseFields.todoDocumentFields(requested));
+        return Pagination.toPage(todos, limit, TodoEntity::id, todo -> SparseFields.todoRow(todo, user, requested));
+    }
+
+    /**
+     * Open and done counts per assignee, paged by assignee id. Served from the stats cache when it is
+     * enabled, otherwise by one aggregation per page.
+     */
+    public PageResponse<TodoStatsResponse> getTodoStats(int limit, String cursor) {
+        Pagination.checkLimit(limit);
+        String afterUserId = Pagination.decodeCursor(cursor);
+        doneWriteBehind.flushAll();
+        List<TodoStats> rows = todoStatsCache.isEnabled()
+                ? todoStatsCache.page(afterUserId, limit + 1)
+                : todoRepository.findStatsPage(afterUserId, limit + 1);
+        return Pagination.toPage(rows, limit, TodoStats::assignedUserId, TodoService::toStatsResponse);
+    }
+
+    /**
+     * Todos whose description matches the text, best matches first, optionally of one assignee and done state.
+     * Hits whose assignee was deleted and not cleaned up yet are left out, so a page may hold fewer than
+     * {@code limit} todos and still have a next cursor. Queued done toggles are written first only for todos
+     * sharing a word with the query; one matched only through stemming or diacritics may show its previous done
+     * state until the write-behind worker writes it, as toggles made on other replicas do.
+     */
+    public PageResponse<TodoResponse> searchTodos(String text, String assigneeEmail, Boolean done, int limit, String cursor)
+            throws EntityNotFoundException {
+        Pagination.checkLimit(limit);
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        // Search cursors carry the score and id of the last hit
+        String after = Pagination.decodeCursor(cursor);
+        Double afterScore = null;
+        String afterId = null;
+        if (after != null) {
+            int separator = after.lastIndexOf(':');
+            afterId = after.substring(separator + 1);
+            try {
+                afterScore = Double.valueOf(after.substring(0, Math.max(separator, 0)));
+            } catch (NumberFormatException e) {
+                afterId = null;
+            }
+            if (afterId == null || !ObjectId.isValid(afterId)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        String assignedUserId = assigneeEmail != null ? userService.getUserEntityByEmail(assigneeEmail).id() : null;
+        if (doneWriteBehind.isEnabled()) {
+            Set<String> words = words(text);
+            doneWriteBehind.flushMatching(todo -> (assignedUserId == null || assignedUserId.equals(todo.assignedUserId()))
+                    && !Collections.disjoint(words, words(todo.description())));
+        }
+        List<TodoSearchHit> hits = todoRepository.search(text, assignedUserId, done, afterScore, afterId, limit + 1);
+        PageResponse<TodoSearchHit> page = Pagination.toPage(hits, limit, hit -> hit.score() + ":" + hit.id(), hit -> hit);
+
+        Set<String> lookups = new HashSet<>();
+        for (TodoSearchHit hit : page.items()) {
+            if (assigneeSnapshots.usableSnapshot(hit.todo()) == null) {
+                lookups.add(hit.assignedUserId());
+            }
+        }
+        Map<String, UserEntity> assignees = userService.findUserEntitiesByIds(lookups);
+        List<TodoResponse> todos = new ArrayList<>(page.items().size());
+        for (TodoSearchHit hit : page.items()) {
+            TodoEntity todo = hit.todo();
+            AssigneeSnapshot snapshot = assigneeSnapshots.usableSnapshot(todo);
+            if (snapshot != null) {
+                todos.add(toResponse(todo, snapshot));
+            } else if (assignees.containsKey(todo.assignedUserId())) {
+                todos.add(toResponse(todo, assignees.get(todo.assignedUserId())));
+            }
+        }
+        return new PageResponse<>(todos, page.nextCursor());
+    }
+
     public TodoResponse getTodoById(String id) throws EntityNotFoundException {
+        return getTaggedTodoById(id).body();
+    }
+
+    public ETagged<TodoResponse> getTaggedTodoById(String id) throws EntityNotFoundException {
+        checkNotKnownMissing(id);
+        doneWriteBehind.flush(id);
         TodoEntity todo = todoRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(id));
-        UserEntity assignee = userService.getUserEntityById(todo.assignedUserId());
-        return toResponse(todo, assignee);
+                .orElseThrow(() -> missing(id));
+        AssigneeSnapshot snapshot = assigneeSnapshots.usableSnapshot(todo);
+        if (snapshot != null) {
+            return new ETagged<>(ETags.of(todo.version(), snapshot), toResponse(todo, snapshot));
+        }
+        UserEntity assignee = assigneeOf(todo);
+        return new ETagged<>(ETags.of(todo.version(), assignee), toResponse(todo, assignee));
+    }
+
+    // Current tag of the todo from a version-only projection, without reading the todo itself
+    public String getTodoETag(String id) throws EntityNotFoundException {
+        checkNotKnownMissing(id);
+        doneWriteBehind.flush(id);
+        TodoVersion todo = todoRepository.findVersion(id)
+                .orElseThrow(() -> missing(id));
+        if (assigneeSnapshots.isEnabled() && todo.assignee() != null) {
+            return ETags.of(todo.version(), todo.assignee());
+        }
+        return ETags.of(todo.version(), userService.getUserEntityById(todo.assignedUserId()));
     }
 
     public TodoResponse createTodo(CreateTodoRequest request) throws EntityNotFoundException {
@@ -44,46 +243,188 @@ public class TodoService {
                 null, // ID will be generated by the repository
                 request.description(),
                 false,
-                assignee.id()
+                assignee.id(),
+                null,
+                assigneeSnapshots.snapshotOf(assignee)
         );
         TodoEntity saved = todoRepository.save(todo);
+        todoStatsCache.assigneeChanged(assignee.id());
         return toResponse(saved, assignee);
     }
 
+    /**
+     * Creates many todos at once: all distinct assignee emails are resolved with one query and the
+     * valid todos are inserted with one unordered bulk write. Failures are reported per item.
+     */
+    public BulkCreateTodoResponse createTodos(List<CreateTodoRequest> requests) {
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " todos can be created at once");
+        }
+        String[] errors = new String[requests.size()];
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Set<ConstraintViolation<CreateTodoRequest>> violations = validator.validate(requests.get(i));
+            if (!violations.isEmpty()) {
+                errors[i] = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+            } else {
+                emails.add(requests.get(i).assigneeEmail());
+            }
+        }
+
+        Map<String, UserEntity> assignees = userService.getUserEntitiesByEmails(emails);
+        String[] ids = new String[requests.size()];
+        List<TodoEntity> todos = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            CreateTodoRequest request = requests.get(i);
+            UserEntity assignee = assignees.get(request.assigneeEmail());
+            if (assignee == null) {
+                errors[i] = new EntityNotFoundException(request.assigneeEmail()).getMessage();
+                continue;
+            }
+            // IDs are assigned up front so they can be reported without reading the documents back
+            ids[i] = new ObjectId().toHexString();
+            todos.add(new TodoEntity(ids[i], request.description(), false, assignee.id(), null,
+                    assigneeSnapshots.snapshotOf(assignee)));
+            positions.add(i);
+        }
+
+        Map<Integer, String> insertErrors = todoRepository.insertUnordered(todos);
+        insertErrors.forEach((position, error) -> errors[positions.get(position)] = error);
+        todos.forEach(todo -> todoStatsCache.assigneeChanged(todo.assignedUserId()));
+
+        List<ItemResult> results = new ArrayList<>(requests.size());
+        int created = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] == null) {
+                results.add(new ItemResult(i, true, ids[i], null));
+                created++;
+            } else {
+                results.add(new ItemResult(i, false, null, errors[i]));
+            }
+        }
+        return new BulkCreateTodoResponse(created, requests.size() - created, results);
+    }
+
+    /**
+     * In write-behind mode the toggle is only queued: the todo is read once to check that it exists, and
+     * further toggles while it is still queued don't touch Mongo at all.
+     */
     public TodoResponse setDone(String id, boolean done) throws EntityNotFoundException {
-        TodoEntity existing = getEntityById(id);
-        TodoEntity updated = new TodoEntity(id, existing.description(), done, existing.assignedUserId());
-        TodoEntity saved = todoRepository.save(updated);
-        UserEntity assignee = userService.getUserEntityById(saved.assignedUserId());
-        return toResponse(saved, assignee);
+        checkNotKnownMissing(id);
+        if (doneWriteBehind.isEnabled()) {
+            TodoEntity queued = doneWriteBehind.coalesce(id, done);
+            if (queued == null) {
+                TodoEntity todo = todoRepository.findById(id)
+                        .orElseThrow(() -> missing(id));
+                queued = doneWriteBehind.enqueue(todo, done);
+            }
+            if (queued != null) {
+                return toResponse(queued);
+            }
+        }
+        TodoEntity saved = writeById(id, (todoId, assignedUserId) -> todoRepository.updateDone(todoId, assignedUserId, done));
+        todoStatsCache.assigneeChanged(saved.assignedUserId());
+        return toResponse(saved);
     }
 
     public TodoResponse assign(String id, AssignTodoRequest request) throws EntityNotFoundException {
-        TodoEntity existing = getEntityById(id);
+        checkNotKnownMissing(id);
+        doneWriteBehind.flush(id);
         UserEntity newAssignee = userService.getUserEntityByEmail(request.newAssigneeEmail());
-        TodoEntity updated = new TodoEntity(id, existing.description(), existing.done(), newAssignee.id());
-        TodoEntity saved = todoRepository.save(updated);
-        return toResponse(saved, newAssignee);
+        AssigneeSnapshot snapshot = assigneeSnapshots.snapshotOf(newAssignee);
+        TodoEntity previous = writeById(id, (todoId, assignedUserId) ->
+                todoRepository.updateAssignee(todoId, assignedUserId, newAssignee.id(), snapshot));
+        todoStatsCache.assigneeChanged(previous.assignedUserId());
+        todoStatsCache.assigneeChanged(newAssignee.id());
+        return toResponse(previous, newAssignee);
     }
 
     public TodoResponse edit(String id, EditTodoRequest request) throws EntityNotFoundException {
-        TodoEntity existing = getEntityById(id);
-        TodoEntity updated = new TodoEntity(id, request.description(), existing.done(), existing.assignedUserId());
-        TodoEntity saved = todoRepository.save(updated);
-        UserEntity assignee = userService.getUserEntityById(saved.assignedUserId());
-        return toResponse(saved, assignee);
+        checkNotKnownMissing(id);
+        doneWriteBehind.flush(id);
+        TodoEntity saved = writeById(id, (todoId, assignedUserId) ->
+                todoRepository.updateDescription(todoId, assignedUserId, request.description()));
+        return toResponse(saved);
     }
 
     public void deleteTodo(String id) throws EntityNotFoundException {
-        if (!todoRepository.existsById(id)) {
+        checkNotKnownMissing(id);
+        TodoEntity deleted = writeById(id, todoRepository::deleteOne);
+        doneWriteBehind.discard(id);
+        missingTodoCache.markMissing(id);
+        todoStatsCache.assigneeChanged(deleted.assignedUserId());
+    }
+
+    /**
+     * Todos are addressed by id alone. Unsharded, the write matches the id and takes one round trip. Sharded, it
+     * carries the shard key: the todo's assignee is read first, by a query every shard answers from its _id
+     * index, and the write is then routed to the todo's shard. If the todo was reassigned in between, the write
+     * matches nothing and the assignee is read again, up to TodoSharding.WRITE_ATTEMPTS times.
+     */
+    private <T> T writeById(String id, BiFunction<String, String, Optional<T>> write) throws EntityNotFoundException {
+        if (!todoSharding.isEnabled()) {
+            return write.apply(id, null).orElseThrow(() -> missing(id));
+        }
+        for (int attempt = 0; attempt < TodoSharding.WRITE_ATTEMPTS; attempt++) {
+            TodoVersion todo = todoRepository.findVersion(id).orElseThrow(() -> missing(id));
+            Optional<T> written = write.apply(id, todo.assignedUserId());
+            if (written.isPresent()) {
+                return written.get();
+            }
+        }
+        throw TodoSharding.reassignedMeanwhile(id);
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : WORD_SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private void checkNotKnownMissing(String id) throws EntityNotFoundException {
+        if (missingTodoCache.isMissing(id)) {
             throw new EntityNotFoundException(id);
         }
-        todoRepository.deleteById(id);
     }
 
-    private TodoEntity getEntityById(String id) throws EntityNotFoundException {
-        return todoRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(id));
+    private EntityNotFoundException missing(String id) {
+        missingTodoCache.markNotFound(id);
+        return new EntityNotFoundException(id);
+    }
+
+    private TodoResponse toResponse(TodoEntity todo) throws EntityNotFoundException {
+        AssigneeSnapshot snapshot = assigneeSnapshots.usableSnapshot(todo);
+        return snapshot != null ? toResponse(todo, snapshot) : toResponse(todo, assigneeOf(todo));
+    }
+
+    // Goes through the batch lookup, which serves cached users without a Mongo round trip
+    private UserEntity assigneeOf(TodoEntity todo) throws EntityNotFoundException {
+        return userService.getUserEntitiesByIds(Set.of(todo.assignedUserId())).get(todo.assignedUserId());
+    }
+
+    private static TodoVersion toVersion(TodoEntity todo) {
+        return new TodoVersion(todo.id(), todo.version(), todo.assignedUserId(), todo.assignee());
+    }
+
+    private static TodoStatsResponse toStatsResponse(TodoStats stats) {
+        return new TodoStatsResponse(
+                stats.assignedUserId(),
+                stats.name(),
+                stats.email(),
+                stats.open(),
+                stats.done()
+        );
     }
 
     private TodoResponse toResponse(TodoEntity todo, UserEntity assignee) {
@@ -95,4 +436,14 @@ public class TodoService {
                 assignee.email()
         );
     }
+
+    private TodoResponse toResponse(TodoEntity todo, AssigneeSnapshot assignee) {
+        return new TodoResponse(
+                todo.id(),
+                todo.description(),
+                todo.done(),
+                assignee.name(),
+                assignee.email()
+        );
+    }
 }
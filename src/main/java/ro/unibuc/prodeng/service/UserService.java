@@ -1,57 +1,200 @@
 package ro.unibuc.prodeng.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import ro.unibuc.prodeng.cache.EmailBloomFilter;
+import ro.unibuc.prodeng.cache.UserCache;
+import ro.unibuc.prodeng.cascade.TodoCascade;
+import ro.unibuc.prodeng.cascade.UserDeletionJobs;
+import ro.unibuc.prodeng.etag.ETags;
+import ro.unibuc.prodeng.fields.SparseFields;
 import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.pagination.Pagination;
+import ro.unibuc.prodeng.repository.TodoRepository;
 import ro.unibuc.prodeng.repository.UserRepository;
 import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.ETagged;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.UserDeletionJobResponse;
 import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
 
 @Service
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private AssigneeSnapshots assigneeSnapshots;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserDeletionJobs userDeletionJobs;
+
+    /**
+     * Loads the email filter from a projection-only scan; called by ChangeStreamInvalidator, which decides when
+     * the filter can be trusted. Until it completes, or if it fails, every email lookup goes to Mongo.
+     */
+    public void rebuildEmailFilter() {
+        try {
+            emailFilter.rebuild(userRepository.count(), userRepository::streamAllEmails);
+        } catch (DataAccessException e) {
+            log.warn("Could not load the user email filter, email lookups will all go to Mongo", e);
+        }
+    }
+
     public List<UserResponse> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    public PageResponse<UserResponse> getUsersPage(int limit, String cursor) {
+        Pagination.checkLimit(limit);
+        List<UserEntity> users = userRepository.findPageAfter(Pagination.decodeCursor(cursor), limit + 1);
+        return Pagination.toPage(users, limit, UserEntity::id, this::toResponse);
+    }
+
+    // Sparse variants of the list and page reads; only the requested fields are read from Mongo
+    public List<Map<String, Object>> getSparseUsers(String fields) {
+        List<String> requested = SparseFields.parse(fields, SparseFields.USER_FIELDS);
+        return userRepository.findPageAfterProjected(null, 0, SparseFields.userDocumentFields(requested)).stream()
+                .map(user -> SparseFields.userRow(user, requested))
+                .toList();
+    }
+
+    public PageResponse<Map<String, Object>> getSparseUsersPage(String fields, int limit, String cursor) {
+        Pagination.checkLimit(limit);
+        List<String> requested = SparseFields.parse(fields, SparseFields.USER_FIELDS);
+        List<UserEntity> users = userRepository.findPageAfterProjected(Pagination.decodeCursor(cursor), limit + 1,
+                SparseFields.userDocumentFields(requested));
+        return Pagination.toPage(users, limit, UserEntity::id, user -> SparseFields.userRow(user, requested));
+    }
+
+    /**
+     * Feeds every user to the consumer straight from a Mongo cursor, without materializing the collection.
+     */
+    public void streamAllUsers(Consumer<UserResponse> consumer) {
+        try (Stream<UserEntity> users = userRepository.streamAll()) {
+            users.map(this::toResponse).forEach(consumer);
+        }
+    }
+
     public UserResponse getUserById(String id) throws EntityNotFoundException {
-        UserEntity user = userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(id));
-        return toResponse(user);
+        return toResponse(getUserEntityById(id));
+    }
+
+    public ETagged<UserResponse> getTaggedUserById(String id) throws EntityNotFoundException {
+        return tagged(getUserEntityById(id));
     }
 
     public UserEntity getUserEntityById(String id) throws EntityNotFoundException {
-        return userRepository.findById(id)
+        return userCache.getById(id, this::loadUser)
                 .orElseThrow(() -> new EntityNotFoundException(id));
     }
 
-    public UserResponse createUser(CreateUserRequest request) {
-        if (userRepository.findByEmail(request.email()).isPresent()) {
-            throw new IllegalArgumentException("Email already exists: " + request.email());
+    /**
+     * Resolves several users keyed by id; cache misses are loaded with a single {@code $in} query.
+     * Throws if any of the requested ids does not exist.
+     */
+    public Map<String, UserEntity> getUserEntitiesByIds(Collection<String> ids) throws EntityNotFoundException {
+        Map<String, UserEntity> users = findUserEntitiesByIds(ids);
+        for (String id : ids) {
+            if (!users.containsKey(id)) {
+                throw new EntityNotFoundException(id);
+            }
         }
+        return users;
+    }
+
+    // Same lookup, leaving ids that do not exist out of the result
+    public Map<String, UserEntity> findUserEntitiesByIds(Collection<String> ids) {
+        Map<String, UserEntity> users = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            userCache.getById(id).ifPresentOrElse(user -> users.put(id, user), () -> missing.add(id));
+        }
+        if (!missing.isEmpty()) {
+            for (UserEntity user : userRepository.findAllById(missing)) {
+                userCache.put(user);
+                users.put(user.id(), user);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Resolves several users keyed by email; cache misses are loaded with a single {@code $in} query.
+     * Unknown emails are simply absent from the result.
+     */
+    public Map<String, UserEntity> getUserEntitiesByEmails(Collection<String> emails) {
+        Map<String, UserEntity> users = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String email : emails) {
+            userCache.getByEmail(email).ifPresentOrElse(user -> users.put(email, user), () -> {
+                if (emailFilter.mightContain(email)) {
+                    missing.add(email);
+                }
+            });
+        }
+        if (!missing.isEmpty()) {
+            for (UserEntity user : userRepository.findByEmailIn(missing)) {
+                userCache.put(user);
+                users.put(user.email(), user);
+            }
+        }
+        return users;
+    }
+
+    public UserResponse createUser(CreateUserRequest request) {
         UserEntity user = new UserEntity(
                 null, // ID will be generated by the repository
                 request.name(),
                 request.email()
         );
-        UserEntity saved = userRepository.save(user);
+        UserEntity saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            // Uniqueness is enforced by the unique index on email, which also covers concurrent creates
+            throw new IllegalArgumentException("Email already exists: " + request.email());
+        }
+        userCache.put(saved);
+        emailFilter.put(saved.email());
         return toResponse(saved);
     }
 
     public UserResponse changeName(String id, String newName) throws EntityNotFoundException {
-        UserEntity existing = userRepository.findById(id)
+        UserEntity saved = userRepository.updateName(id, newName)
                 .orElseThrow(() -> new EntityNotFoundException(id));
-        UserEntity updated = new UserEntity(existing.id(), newName, existing.email());
-        UserEntity saved = userRepository.save(updated);
+        userCache.put(saved);
+        assigneeSnapshots.userChanged(saved);
         return toResponse(saved);
     }
 
@@ -60,17 +203,70 @@ public class UserService {
             throw new EntityNotFoundException(id);
         }
         userRepository.deleteById(id);
+        userCache.invalidate(id);
+    }
+
+    /**
+     * Deletes the user and queues a background job that deletes its todos, or reassigns them to the user with
+     * the given email, in chunks. A user that is already gone is accepted while todos still reference it, which
+     * cleans up after plain deletes and resumes interrupted jobs. Until the job reaches them, the remaining
+     * todos read as they did after a plain delete.
+     */
+    public UserDeletionJobResponse deleteUser(String id, TodoCascade cascade, String reassignToEmail)
+            throws EntityNotFoundException {
+        UserEntity reassignTo = null;
+        if (cascade == TodoCascade.REASSIGN) {
+            if (reassignToEmail == null || reassignToEmail.isBlank()) {
+                throw new IllegalArgumentException("reassignTo is required to reassign todos");
+            }
+            reassignTo = getUserEntityByEmail(reassignToEmail);
+            if (reassignTo.id().equals(id)) {
+                throw new IllegalArgumentException("Todos cannot be reassigned to the deleted user");
+            }
+        }
+        if (userRepository.existsById(id)) {
+            userRepository.deleteById(id);
+            userCache.invalidate(id);
+        } else if (!todoRepository.existsByAssignedUserId(id)) {
+            throw new EntityNotFoundException(id);
+        }
+        return reassignTo == null
+                ? userDeletionJobs.submit(id, cascade, null, null)
+                : userDeletionJobs.submit(id, cascade, reassignTo.id(), assigneeSnapshots.snapshotOf(reassignTo));
     }
 
     public UserResponse getUserByEmail(String email) throws EntityNotFoundException {
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException(email));
-        return toResponse(user);
+        return toResponse(getUserEntityByEmail(email));
+    }
+
+    public ETagged<UserResponse> getTaggedUserByEmail(String email) throws EntityNotFoundException {
+        return tagged(getUserEntityByEmail(email));
     }
 
     public UserEntity getUserEntityByEmail(String email) throws EntityNotFoundException {
-        return userRepository.findByEmail(email)
+        Optional<UserEntity> cached = userCache.getByEmail(email);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        if (!emailFilter.mightContain(email)) {
+            throw new EntityNotFoundException(email);
+        }
+        // The email only resolves the id: the user is then loaded through the id cache, which reads it again
+        // unless it is already cached, so a write that lands after the first read can't be cached over
+        String id = userRepository.findByEmail(email)
+                .map(UserEntity::id)
                 .orElseThrow(() -> new EntityNotFoundException(email));
+        return userCache.getById(id, this::loadUser)
+                .filter(user -> email.equals(user.email()))
+                .orElseThrow(() -> new EntityNotFoundException(email));
+    }
+
+    private UserEntity loadUser(String id) {
+        return userRepository.findById(id).orElse(null);
+    }
+
+    private ETagged<UserResponse> tagged(UserEntity user) {
+        return new ETagged<>(ETags.of(user), toResponse(user));
     }
 
     private UserResponse toResponse(UserEntity user) {
@@ -0,0 +1,74 @@
+package ro.unibuc.prodeng.sharding;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+import ro.unibuc.prodeng.model.TodoEntity;
+
+/**
+ * Shards the todos collection on the key declared by {@code @Sharded} on TodoEntity, which Spring Data only uses
+ * to route saves and never applies itself. Runs once the context's singletons exist, so after the entity indexes
+ * (including the one backing the key) are created and before the web server takes requests. Sharding an already
+ * sharded collection with the same key is a no-op, so every replica runs it on startup; it needs a connection to
+ * mongos, and startup fails if the command does.
+ *
+ * <p>Only a sharded collection needs by-id writes to carry the shard key. Those writes read the todo's assignee
+ * first and retry if it changed before the write; {@link #WRITE_ATTEMPTS} bounds how often.
+ */
+@Component
+public class TodoSharding implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoSharding.class);
+
+    public static final int WRITE_ATTEMPTS = 3;
+
+    private final boolean enabled;
+    private final MongoTemplate mongoTemplate;
+
+    public TodoSharding(@Value("${todos.sharding.enabled:false}") boolean enabled, MongoTemplate mongoTemplate) {
+        this.enabled = enabled;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Raised when a by-id write found the todo reassigned before each of its attempts
+    public static ConcurrencyFailureException reassignedMeanwhile(String id) {
+        return new ConcurrencyFailureException("Todo " + id + " was reassigned while being written, try again");
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            shardTodos();
+        }
+    }
+
+    void shardTodos() {
+        String namespace = mongoTemplate.getDb().getName() + "." + mongoTemplate.getCollectionName(TodoEntity.class);
+        Document key = shardKey(mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(TodoEntity.class));
+        mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin")
+                .runCommand(new Document("shardCollection", namespace).append("key", key));
+        log.info("Sharded {} on {}", namespace, key.toJson());
+    }
+
+    // The declared key with property names mapped to field names, in the form shardCollection takes
+    static Document shardKey(MongoPersistentEntity<?> entity) {
+        Document key = new Document();
+        entity.getShardKey().getDocument().forEach((name, order) -> {
+            MongoPersistentProperty property = entity.getPersistentProperty(name);
+            key.append(property != null ? property.getFieldName() : name, "hash".equals(order) ? "hashed" : order);
+        });
+        return key;
+    }
+}
@@ -0,0 +1,200 @@
+package ro.unibuc.prodeng.snapshot;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.UserRepository;
+
+/**
+ * Optional denormalized mode in which every todo embeds a snapshot of its assignee's name and email, so a todo
+ * is rendered from one query. Renames are propagated asynchronously: changed users are coalesced per user and
+ * written to their todos by one bulk of updateMany operations per round. On startup a backfill brings existing
+ * todos, and any snapshots a crashed replica left behind, up to date.
+ *
+ * <p>The time from a rename to its snapshots being written is published as {@code todos.assignee_snapshot.lag}.
+ */
+@Component
+public class AssigneeSnapshots implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AssigneeSnapshots.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final boolean enabled;
+    private final boolean backfillOnStartup;
+    private final TodoRepository todoRepository;
+    private final UserRepository userRepository;
+    private final Timer lag;
+    private final Counter backfilled;
+    // Latest pending change per user id
+    private final Map<String, PendingChange> pending = new ConcurrentHashMap<>();
+    private final Semaphore signal = new Semaphore(0);
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public AssigneeSnapshots(@Value("${todos.assignee-snapshot.enabled:false}") boolean enabled,
+                             @Value("${todos.assignee-snapshot.backfill-on-startup:true}") boolean backfillOnStartup,
+                             TodoRepository todoRepository,
+                             UserRepository userRepository,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.backfillOnStartup = backfillOnStartup;
+        this.todoRepository = todoRepository;
+        this.userRepository = userRepository;
+        this.lag = Timer.builder("todos.assignee_snapshot.lag")
+                .description("Time from a user change to its todos' assignee snapshots being updated")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.backfilled = meterRegistry.counter("todos.assignee_snapshot.backfilled");
+        meterRegistry.gaugeMapSize("todos.assignee_snapshot.pending", List.of(), pending);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Snapshot to store with a todo newly assigned to the user, or null when the mode is off
+    public AssigneeSnapshot snapshotOf(UserEntity assignee) {
+        return enabled ? AssigneeSnapshot.of(assignee) : null;
+    }
+
+    // The todo's snapshot if reads may use it; snapshots are not kept up to date while the mode is off
+    public AssigneeSnapshot usableSnapshot(TodoEntity todo) {
+        return enabled ? todo.assignee() : null;
+    }
+
+    public void userChanged(UserEntity user) {
+        if (!enabled) {
+            return;
+        }
+        // Keep the newest user but the oldest change time, so the lag covers the whole wait
+        pending.merge(user.id(), new PendingChange(user, System.nanoTime()),
+                (older, newer) -> new PendingChange(newer.user(), older.changedAt()));
+        signal.release();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (enabled) {
+            worker = Thread.ofPlatform().daemon().name("assignee-snapshots").start(this::run);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            signal.release();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+        while (running) {
+            try {
+                signal.acquire();
+                signal.drainPermits();
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (DataAccessException e) {
+                log.warn("Could not update assignee snapshots, retrying in {}", RETRY_DELAY, e);
+                sleep(RETRY_DELAY);
+                signal.release();
+            }
+        }
+        // Renames accepted before shutdown still reach their todos
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            log.warn("Could not update assignee snapshots on shutdown; the next startup backfill will", e);
+        }
+    }
+
+    /**
+     * Writes all pending changes in one bulk. A change that arrives for the same user while the bulk runs
+     * stays pending for the next round.
+     */
+    void flush() {
+        List<PendingChange> changes = new ArrayList<>(pending.values());
+        if (changes.isEmpty()) {
+            return;
+        }
+        todoRepository.updateAssigneeSnapshots(changes.stream().map(PendingChange::user).toList());
+        long now = System.nanoTime();
+        for (PendingChange change : changes) {
+            pending.remove(change.user().id(), change);
+            lag.record(now - change.changedAt(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void backfill() {
+        long updated = 0;
+        try (Stream<UserEntity> users = userRepository.streamAll()) {
+            Iterator<UserEntity> iterator = users.iterator();
+            List<UserEntity> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+            while (running && iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == BACKFILL_BATCH_SIZE || !iterator.hasNext()) {
+                    long count = todoRepository.updateAssigneeSnapshots(batch);
+                    backfilled.increment(count);
+                    updated += count;
+                    batch.clear();
+                }
+            }
+            log.info("Assignee snapshot backfill updated {} todos", updated);
+        } catch (DataAccessException e) {
+            // Todos without a snapshot are still rendered through the user lookup
+            log.warn("Assignee snapshot backfill stopped after {} todos", updated, e);
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private record PendingChange(UserEntity user, long changedAt) {}
+}
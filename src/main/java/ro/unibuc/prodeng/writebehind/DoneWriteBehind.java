@@ -0,0 +1,333 @@
+package ro.unibuc.prodeng.writebehind;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+
+/**
+ * Optional write-behind mode for done toggles. A toggle is acknowledged once queued; repeated toggles of the
+ * same todo are coalesced into its latest value, and the queue is written by a background thread in unordered
+ * bulk writes after a short coalescing window. The queue is bounded: once full, toggles of todos not already
+ * queued are written synchronously by the caller, which slows clients down to what Mongo absorbs.
+ *
+ * <p>Reads served by this replica stay consistent with its own toggles: any read that could return a queued
+ * todo first writes the queued toggles it covers. Other replicas see a toggle once it is flushed. Queued
+ * toggles are flushed on shutdown, after the web server has stopped taking requests; a replica that crashes
+ * loses the toggles it had not flushed yet.
+ */
+@Component
+public class DoneWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DoneWriteBehind.class);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+    private static final int REASSIGNED_ATTEMPTS = 3;
+
+    private final boolean enabled;
+    private final int maxPending;
+    private final int batchSize;
+    private final Duration coalesceWindow;
+    private final TodoRepository todoRepository;
+    private final TodoStatsCache todoStatsCache;
+    private final Timer flushTime;
+    private final Timer lag;
+    private final Counter queued;
+    private final Counter coalesced;
+    private final Counter direct;
+    private final Counter dropped;
+    // Latest queued toggle per todo id
+    private final Map<String, PendingDone> pending = new ConcurrentHashMap<>();
+    // Serializes writes from request threads and the worker, so an older toggle never lands after a newer one
+    private final Object writeLock = new Object();
+    private final Semaphore signal = new Semaphore(0);
+    private final CountDownLatch stopping = new CountDownLatch(1);
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public DoneWriteBehind(@Value("${todos.write-behind.enabled:false}") boolean enabled,
+                           @Value("${todos.write-behind.max-pending:10000}") int maxPending,
+                           @Value("${todos.write-behind.batch-size:500}") int batchSize,
+                           @Value("${todos.write-behind.coalesce-window:PT0.1S}") Duration coalesceWindow,
+                           TodoRepository todoRepository,
+                           TodoStatsCache todoStatsCache,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.coalesceWindow = coalesceWindow;
+        this.todoRepository = todoRepository;
+        this.todoStatsCache = todoStatsCache;
+        this.flushTime = Timer.builder("todos.write_behind.flush")
+                .description("Duration of one bulk write of queued done toggles")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lag = Timer.builder("todos.write_behind.lag")
+                .description("Time from a done toggle being acknowledged to it being written to Mongo")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queued = meterRegistry.counter("todos.write_behind.toggles", "result", "queued");
+        this.coalesced = meterRegistry.counter("todos.write_behind.toggles", "result", "coalesced");
+        this.direct = meterRegistry.counter("todos.write_behind.toggles", "result", "direct");
+        this.dropped = meterRegistry.counter("todos.write_behind.toggles", "result", "dropped");
+        meterRegistry.gaugeMapSize("todos.write_behind.pending", List.of(), pending);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replaces the queued toggle of an already queued todo, without reading it again.
+     * Returns the todo as it will be written, or null if it is not queued.
+     */
+    public TodoEntity coalesce(String id, boolean done) {
+        if (!enabled) {
+            return null;
+        }
+        PendingDone replaced = pending.computeIfPresent(id,
+                (key, older) -> new PendingDone(withDone(older.todo(), done), older.queuedAt()));
+        if (replaced == null) {
+            return null;
+        }
+        coalesced.increment();
+        return replaced.todo();
+    }
+
+    /**
+     * Queues a toggle of the given todo. Returns the todo as it will be written, or null if the caller has to
+     * write it synchronously because the queue is full or the replica is shutting down.
+     */
+    public TodoEntity enqueue(TodoEntity todo, boolean done) {
+        if (!enabled) {
+            return null;
+        }
+        if (!running || pending.size() >= maxPending) {
+            direct.increment();
+            return null;
+        }
+        PendingDone entry = pending.merge(todo.id(), new PendingDone(withDone(todo, done), System.nanoTime()),
+                (older, newer) -> new PendingDone(newer.todo(), older.queuedAt()));
+        queued.increment();
+        signal.release();
+        return entry.todo();
+    }
+
+    // Writes the queued toggle of the todo, if any, so the caller reads its own write back
+    public void flush(String id) {
+        PendingDone entry = enabled ? pending.get(id) : null;
+        if (entry != null) {
+            write(List.of(entry));
+        }
+    }
+
+    public void flushAssignee(String assignedUserId) {
+        if (enabled && !pending.isEmpty()) {
+            write(select(entry -> entry.todo().assignedUserId().equals(assignedUserId)));
+        }
+    }
+
+    // Writes the queued toggles of the todos the filter accepts, for reads that can only return those
+    public void flushMatching(Predicate<TodoEntity> filter) {
+        if (enabled && !pending.isEmpty()) {
+            write(select(entry -> filter.test(entry.todo())));
+        }
+    }
+
+    public void flushAll() {
+        if (enabled && !pending.isEmpty()) {
+            write(select(entry -> true));
+        }
+    }
+
+    // A deleted todo's queued toggle would not match anything; dropping it keeps it from being acknowledged again
+    public void discard(String id) {
+        if (enabled) {
+            pending.remove(id);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (enabled) {
+            worker = Thread.ofPlatform().daemon().name("done-write-behind").start(this::run);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        stopping.countDown();
+        Thread thread = worker;
+        if (thread != null) {
+            signal.release();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server, so no toggle is acknowledged after the final flush
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                signal.acquire();
+                // Let further toggles of the same todos coalesce before writing; cut short by shutdown
+                stopping.await(coalesceWindow.toNanos(), TimeUnit.NANOSECONDS);
+                signal.drainPermits();
+                flushAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (DataAccessException e) {
+                log.warn("Could not write queued done toggles, retrying in {}", RETRY_DELAY, e);
+                sleep(RETRY_DELAY);
+                signal.release();
+            }
+        }
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            try {
+                flushAll();
+            } catch (DataAccessException e) {
+                if (attempt == SHUTDOWN_ATTEMPTS) {
+                    log.error("Dropping {} queued done toggles that could not be written on shutdown", pending.size(), e);
+                    return;
+                }
+                log.warn("Could not write queued done toggles on shutdown, retrying", e);
+                sleep(RETRY_DELAY);
+            }
+        }
+    }
+
+    /**
+     * Writes the given queued toggles in bulks of at most batchSize. Writes run one at a time, and each writes
+     * the entries as they are queued when it gets its turn, so an entry written or replaced meanwhile by another
+     * writer is not written again with its older value. An entry is dequeued only if it was not toggled again
+     * while its bulk ran; otherwise the newer value stays queued for the next write.
+     */
+    private void write(List<PendingDone> entries) {
+        synchronized (writeLock) {
+            List<PendingDone> current = new ArrayList<>(entries.size());
+            for (PendingDone entry : entries) {
+                PendingDone latest = pending.get(entry.todo().id());
+                if (latest != null) {
+                    current.add(latest);
+                }
+            }
+            for (int from = 0; from < current.size(); from += batchSize) {
+                writeBatch(current.subList(from, Math.min(from + batchSize, current.size())));
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingDone> batch) {
+        long start = System.nanoTime();
+        Map<String, TodoEntity> written = writeFollowingAssignees(batch.stream().map(PendingDone::todo).toList());
+        long now = System.nanoTime();
+        flushTime.record(now - start, TimeUnit.NANOSECONDS);
+        for (PendingDone entry : batch) {
+            TodoEntity todo = written.get(entry.todo().id());
+            if (pending.remove(entry.todo().id(), entry) && todo != null) {
+                lag.record(now - entry.queuedAt(), TimeUnit.NANOSECONDS);
+            }
+            if (todo != null) {
+                todoStatsCache.assigneeChanged(todo.assignedUserId());
+            }
+        }
+    }
+
+    /**
+     * The bulk filters on the assignee a todo had when its toggle was queued, so a todo reassigned since, by
+     * another replica or a deletion job, is not matched. When fewer todos match than were written, the current
+     * assignees are read and those todos written again; toggles of todos deleted meanwhile, or still not
+     * matched after a few attempts, are dropped and counted. Returns the written todos by id.
+     */
+    private Map<String, TodoEntity> writeFollowingAssignees(List<TodoEntity> todos) {
+        Map<String, TodoEntity> written = new HashMap<>();
+        List<TodoEntity> remaining = todos;
+        for (int attempt = 1; !remaining.isEmpty(); attempt++) {
+            if (todoRepository.updateDoneAll(remaining) == remaining.size()) {
+                remaining.forEach(todo -> written.put(todo.id(), todo));
+                break;
+            }
+            Map<String, String> assignees = todoRepository.findAssignees(remaining.stream().map(TodoEntity::id).toList());
+            List<TodoEntity> reassigned = new ArrayList<>();
+            for (TodoEntity todo : remaining) {
+                String assignedUserId = assignees.get(todo.id());
+                if (todo.assignedUserId().equals(assignedUserId)) {
+                    written.put(todo.id(), todo);
+                } else if (assignedUserId != null && attempt < REASSIGNED_ATTEMPTS) {
+                    reassigned.add(new TodoEntity(todo.id(), todo.description(), todo.done(), assignedUserId,
+                            todo.version(), todo.assignee()));
+                } else {
+                    dropped.increment();
+                    log.warn("Dropping queued done toggle of todo {}, which was {}", todo.id(),
+                            assignedUserId == null ? "deleted" : "reassigned again while it was written");
+                }
+            }
+            remaining = reassigned;
+        }
+        return written;
+    }
+
+    private List<PendingDone> select(Predicate<PendingDone> filter) {
+        List<PendingDone> entries = new ArrayList<>();
+        for (PendingDone entry : pending.values()) {
+            if (filter.test(entry)) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static TodoEntity withDone(TodoEntity todo, boolean done) {
+        return new TodoEntity(todo.id(), todo.description(), done, todo.assignedUserId(), todo.version(), todo.assignee());
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private record PendingDone(TodoEntity todo, long queuedAt) {}
+}
@@ -31,5 +31,8 @@ public abstract class IntegrationTestBase {
     static void setProperties(DynamicPropertyRegistry registry) {
         String mongoUrl = "mongodb://localhost:" + mongoDBContainer.getMappedPort(27017);
         registry.add("mongodb.connection.url", () -> mongoUrl);
+        // The container runs behind mongos so the sharded write paths are exercised; compose and k8s
+        // still run a standalone mongod, where sharding stays off
+        registry.add("todos.sharding.enabled", () -> "true");
     }
 }
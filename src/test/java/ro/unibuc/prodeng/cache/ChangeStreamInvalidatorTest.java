@@ -0,0 +1,91 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.mongodb.client.model.changestream.OperationType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class ChangeStreamInvalidatorTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserService userService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserCache userCache = new UserCache(100, Duration.ofMinutes(1), meterRegistry);
+    private final EmailBloomFilter emailFilter = new EmailBloomFilter(true, 1000, 0.01, meterRegistry);
+    private final MissingTodoCache missingTodoCache = new MissingTodoCache(true, 100, Duration.ofMinutes(1), true, meterRegistry);
+    private final UserEntity alice = new UserEntity("u1", "Alice", "alice@example.com");
+
+    private ChangeStreamInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(UserEntity.class)).thenReturn("users");
+        when(mongoTemplate.getCollectionName(TodoEntity.class)).thenReturn("todos");
+        invalidator = new ChangeStreamInvalidator(true, Duration.ofSeconds(30), mongoTemplate, userService,
+                userCache, emailFilter, missingTodoCache, meterRegistry);
+        userCache.put(alice);
+    }
+
+    @Test
+    void testApply_userUpdatedElsewhere_evictsCachedUser() {
+        // Act
+        invalidator.apply("users", OperationType.UPDATE, "u1", null);
+
+        // Assert
+        assertTrue(userCache.getById("u1").isEmpty());
+        assertTrue(userCache.getByEmail("alice@example.com").isEmpty());
+    }
+
+    @Test
+    void testApply_userInsertedElsewhere_addsEmailToFilter() {
+        // Arrange
+        emailFilter.rebuild(0, Stream::empty);
+
+        // Act
+        invalidator.apply("users", OperationType.INSERT, "u2", new Document("email", "bob@example.com"));
+
+        // Assert
+        assertTrue(emailFilter.mightContain("bob@example.com"));
+        assertTrue(userCache.getById("u1").isPresent());
+    }
+
+    @Test
+    void testApply_todoDeletedElsewhere_marksTodoMissing() {
+        // Act
+        invalidator.apply("todos", OperationType.DELETE, "t1", null);
+
+        // Assert
+        assertTrue(missingTodoCache.isMissing("t1"));
+        assertTrue(userCache.getById("u1").isPresent());
+    }
+
+    @Test
+    void testApply_collectionDropped_clearsUserCache() {
+        // Act
+        invalidator.apply("users", OperationType.DROP, null, null);
+
+        // Assert
+        assertTrue(userCache.getById("u1").isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package ro.unibuc.prodeng.cache;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailBloomFilterTest {
+
+    private final EmailBloomFilter filter = new EmailBloomFilter(true, 10_000, 0.01, new SimpleMeterRegistry());
+
+    @Test
+    void testMightContain_beforeRebuild_reportsEveryEmailAsPossible() {
+        // Act & Assert
+        assertTrue(filter.mightContain("nobody@example.com"));
+    }
+
+    @Test
+    void testMightContain_afterRebuildAndPut_hasNoFalseNegativesAndFewFalsePositives() {
+        // Arrange
+        List<String> registered = IntStream.range(0, 5_000).mapToObj(i -> "user" + i + "@example.com").toList();
+        filter.rebuild(registered.size(), registered::stream);
+        filter.put("late@example.com");
+
+        // Act
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("other" + i + "@example.com"))
+                .count();
+
+        // Assert
+        assertTrue(registered.stream().allMatch(filter::mightContain));
+        assertTrue(filter.mightContain("late@example.com"));
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testMightContain_disabled_reportsEveryEmailAsPossible() {
+        // Arrange
+        EmailBloomFilter disabled = new EmailBloomFilter(false, 10_000, 0.01, new SimpleMeterRegistry());
+        disabled.rebuild(0, Stream::empty);
+
+        // Act & Assert
+        assertTrue(disabled.mightContain("nobody@example.com"));
+    }
+
+    @Test
+    void testRebuild_userRegisteredWhileScanOpens_keepsTheirEmail() {
+        // Arrange
+        Supplier<Stream<String>> scanMissingLateUser = () -> {
+            filter.put("late@example.com");
+            return Stream.of("early@example.com");
+        };
+
+        // Act
+        filter.rebuild(2, scanMissingLateUser);
+
+        // Assert
+        assertTrue(filter.mightContain("early@example.com"));
+        assertTrue(filter.mightContain("late@example.com"));
+    }
+}
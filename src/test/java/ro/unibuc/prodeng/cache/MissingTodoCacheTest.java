@@ -0,0 +1,52 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.config.MongoClientProperties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MissingTodoCacheTest {
+
+    @Test
+    void testMarkNotFound_primaryReads_cachesId() {
+        // Arrange
+        MissingTodoCache cache = new MissingTodoCache(true, 100, Duration.ofMinutes(1), true, new SimpleMeterRegistry());
+
+        // Act
+        cache.markNotFound("t1");
+
+        // Assert
+        assertTrue(cache.isMissing("t1"));
+    }
+
+    @Test
+    void testMarkNotFound_secondaryReadPreferenceInUrl_doesNotCacheId() {
+        // Arrange
+        MongoClientProperties properties = new MongoClientProperties(
+                new MongoClientProperties.Connection("mongodb://localhost:27017/?readPreference=secondaryPreferred"),
+                "test", new MongoClientProperties.Pool(null, null, null, null), null, null, null, null, true);
+        MissingTodoCache cache = new MissingTodoCache(true, 100, Duration.ofMinutes(1), properties, new SimpleMeterRegistry());
+
+        // Act
+        cache.markNotFound("t1");
+
+        // Assert
+        assertFalse(cache.isMissing("t1"));
+    }
+
+    @Test
+    void testMarkMissing_nonPrimaryReads_stillCachesDeletedId() {
+        // Arrange
+        MissingTodoCache cache = new MissingTodoCache(true, 100, Duration.ofMinutes(1), false, new SimpleMeterRegistry());
+
+        // Act
+        cache.markMissing("t1");
+
+        // Assert
+        assertTrue(cache.isMissing("t1"));
+    }
+}
@@ -0,0 +1,116 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.model.TodoStats;
+import ro.unibuc.prodeng.repository.TodoRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoStatsCacheTest {
+
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final TodoStatsCache cache = new TodoStatsCache(true, Duration.ofHours(1), todoRepository, new SimpleMeterRegistry());
+
+    private final TodoStats alice = new TodoStats("u1", "Alice", "alice@example.com", 2, 1);
+    private final TodoStats bob = new TodoStats("u2", "Bob", "bob@example.com", 0, 4);
+    private final TodoStats carol = new TodoStats("u3", "Carol", "carol@example.com", 1, 0);
+
+    @Test
+    void testPage_afterCursor_servesLaterAssigneesFromOneFullLoad() {
+        // Arrange
+        when(todoRepository.findStats(null)).thenReturn(List.of(alice, bob, carol));
+
+        // Act
+        List<TodoStats> first = cache.page(null, 2);
+        List<TodoStats> second = cache.page("u2", 2);
+
+        // Assert
+        assertEquals(List.of(alice, bob), first);
+        assertEquals(List.of(carol), second);
+        verify(todoRepository, times(1)).findStats(null);
+    }
+
+    @Test
+    void testPage_assigneeChanged_recountsOnlyThatAssignee() {
+        // Arrange
+        when(todoRepository.findStats(null)).thenReturn(List.of(alice, bob));
+        cache.page(null, 10);
+        TodoStats aliceAfterWrite = new TodoStats("u1", "Alice", "alice@example.com", 1, 2);
+        when(todoRepository.findStats(List.of("u1"))).thenReturn(List.of(aliceAfterWrite));
+        when(todoRepository.findStats(List.of("u2"))).thenReturn(List.of());
+
+        // Act
+        cache.assigneeChanged("u1");
+        List<TodoStats> afterFirstWrite = cache.page(null, 10);
+        cache.assigneeChanged("u2");
+        List<TodoStats> afterLastTodoOfBobRemoved = cache.page(null, 10);
+
+        // Assert
+        assertEquals(List.of(aliceAfterWrite, bob), afterFirstWrite);
+        assertEquals(List.of(aliceAfterWrite), afterLastTodoOfBobRemoved);
+        verify(todoRepository, times(1)).findStats(null);
+    }
+
+    @Test
+    void testPage_todoReassigned_recountsPreviousAndNewAssigneeOnly() {
+        // Arrange
+        when(todoRepository.findStats(null)).thenReturn(List.of(alice, bob));
+        cache.page(null, 10);
+        TodoStats bobAfterMove = new TodoStats("u2", "Bob", "bob@example.com", 0, 3);
+        TodoStats carolAfterMove = new TodoStats("u3", "Carol", "carol@example.com", 0, 1);
+        when(todoRepository.findStats(anyList())).thenReturn(List.of(bobAfterMove, carolAfterMove));
+
+        // Act
+        cache.assigneeChanged("u2");
+        cache.assigneeChanged("u3");
+        List<TodoStats> page = cache.page(null, 10);
+
+        // Assert
+        assertEquals(List.of(alice, bobAfterMove, carolAfterMove), page);
+        verify(todoRepository, times(1)).findStats(null);
+        verify(todoRepository, times(1)).findStats(argThat(ids -> ids != null && Set.copyOf(ids).equals(Set.of("u2", "u3"))));
+    }
+
+    @Test
+    void testPage_firstLoadFails_retriesFullLoadOnNextRead() {
+        // Arrange
+        when(todoRepository.findStats(null))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of(alice));
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> cache.page(null, 10));
+        List<TodoStats> page = cache.page(null, 10);
+
+        // Assert
+        assertEquals(List.of(alice), page);
+        verify(todoRepository, times(2)).findStats(null);
+    }
+
+    @Test
+    void testPage_recountFails_keepsAssigneeMarkedForNextRead() {
+        // Arrange
+        when(todoRepository.findStats(null)).thenReturn(List.of(alice));
+        cache.page(null, 10);
+        TodoStats aliceAfterWrite = new TodoStats("u1", "Alice", "alice@example.com", 1, 2);
+        when(todoRepository.findStats(List.of("u1")))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of(aliceAfterWrite));
+        cache.assigneeChanged("u1");
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> cache.page(null, 10));
+        List<TodoStats> page = cache.page(null, 10);
+
+        // Assert
+        assertEquals(List.of(aliceAfterWrite), page);
+    }
+}
@@ -0,0 +1,71 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.model.UserEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final UserCache cache = new UserCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    void testGetByEmail_userCachedAgainWithNewEmail_previousEmailMisses() {
+        // Arrange
+        cache.put(new UserEntity("u1", "Alice", "alice@example.com", 1L));
+        UserEntity renamed = new UserEntity("u1", "Alice", "alice@example.org", 2L);
+
+        // Act
+        cache.put(renamed);
+
+        // Assert
+        assertTrue(cache.getByEmail("alice@example.com").isEmpty());
+        assertEquals(Optional.of(renamed), cache.getByEmail("alice@example.org"));
+    }
+
+    @Test
+    void testInvalidate_cachedUser_evictsItUnderIdAndEmail() {
+        // Arrange
+        cache.put(new UserEntity("u1", "Alice", "alice@example.com", 1L));
+        cache.put(new UserEntity("u2", "Bob", "bob@example.com", 1L));
+
+        // Act
+        cache.invalidate("u1");
+
+        // Assert
+        assertTrue(cache.getById("u1").isEmpty());
+        assertTrue(cache.getByEmail("alice@example.com").isEmpty());
+        assertTrue(cache.getByEmail("bob@example.com").isPresent());
+    }
+
+    @Test
+    void testPut_olderVersionOfCachedUser_keepsNewerUser() {
+        // Arrange
+        UserEntity renamed = new UserEntity("u1", "Alicia", "alice@example.com", 2L);
+        cache.put(renamed);
+
+        // Act
+        cache.put(new UserEntity("u1", "Alice", "alice@example.com", 1L));
+
+        // Assert
+        assertEquals(Optional.of(renamed), cache.getById("u1"));
+        assertEquals(Optional.of(renamed), cache.getByEmail("alice@example.com"));
+    }
+
+    @Test
+    void testGetById_loaderFindsNoUser_cachesNothing() {
+        // Act
+        Optional<UserEntity> missing = cache.getById("u1", id -> null);
+        Optional<UserEntity> loaded = cache.getById("u1", id -> new UserEntity(id, "Alice", "alice@example.com", 1L));
+
+        // Assert
+        assertTrue(missing.isEmpty());
+        assertEquals("Alice", loaded.orElseThrow().name());
+        assertTrue(cache.getByEmail("alice@example.com").isPresent());
+    }
+}
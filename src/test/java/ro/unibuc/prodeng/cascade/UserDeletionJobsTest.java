@@ -0,0 +1,108 @@
+package ro.unibuc.prodeng.cascade;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.cache.MissingTodoCache;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.response.UserDeletionJobResponse;
+import ro.unibuc.prodeng.writebehind.DoneWriteBehind;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class UserDeletionJobsTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private TodoStatsCache todoStatsCache;
+
+    @Mock
+    private DoneWriteBehind doneWriteBehind;
+
+    @Mock
+    private MissingTodoCache missingTodoCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserDeletionJobs jobs;
+
+    @BeforeEach
+    void setUp() {
+        jobs = new UserDeletionJobs(2, 10, todoRepository, todoStatsCache, doneWriteBehind, missingTodoCache, meterRegistry);
+        // Running queued jobs on the test thread instead of the background worker
+        ReflectionTestUtils.setField(jobs, "running", true);
+    }
+
+    @Test
+    void testRunQueued_deleteCascade_deletesChunksUntilAShortOne() {
+        // Arrange
+        when(todoRepository.deleteChunkOfAssignee("u1", 2))
+                .thenReturn(List.of("t1", "t2"))
+                .thenReturn(List.of("t3"));
+        UserDeletionJobResponse submitted = jobs.submit("u1", TodoCascade.DELETE, null, null);
+
+        // Act
+        jobs.runQueued();
+
+        // Assert
+        UserDeletionJobResponse job = jobs.getJob(submitted.id());
+        assertEquals("succeeded", job.status());
+        assertEquals(3, job.todosProcessed());
+        assertNotNull(job.finishedAt());
+        verify(todoRepository, times(2)).deleteChunkOfAssignee("u1", 2);
+        verify(missingTodoCache).markMissing("t3");
+        verify(doneWriteBehind).discard("t3");
+        assertEquals(3, meterRegistry.get("users.deletion.todos").tag("cascade", "delete").counter().count());
+    }
+
+    @Test
+    void testRunQueued_reassignCascade_flushesQueuedTogglesAndMarksBothAssignees() {
+        // Arrange
+        AssigneeSnapshot bob = new AssigneeSnapshot("Bob", "bob@example.com", 0L);
+        when(todoRepository.reassignChunkOfAssignee("u1", "u2", bob, 2)).thenReturn(List.of("t1"));
+        UserDeletionJobResponse submitted = jobs.submit("u1", TodoCascade.REASSIGN, "u2", bob);
+
+        // Act
+        jobs.runQueued();
+
+        // Assert
+        assertEquals("succeeded", jobs.getJob(submitted.id()).status());
+        verify(doneWriteBehind).flushAssignee("u1");
+        verify(todoStatsCache).assigneeChanged("u1");
+        verify(todoStatsCache).assigneeChanged("u2");
+        verify(missingTodoCache, never()).markMissing("t1");
+    }
+
+    @Test
+    void testRunQueued_chunkFailsOnce_retriesAndKeepsProgress() {
+        // Arrange
+        when(todoRepository.deleteChunkOfAssignee("u1", 2))
+                .thenReturn(List.of("t1", "t2"))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of());
+        UserDeletionJobResponse submitted = jobs.submit("u1", TodoCascade.DELETE, null, null);
+
+        // Act
+        jobs.runQueued();
+
+        // Assert
+        UserDeletionJobResponse job = jobs.getJob(submitted.id());
+        assertEquals("succeeded", job.status());
+        assertEquals(2, job.todosProcessed());
+        verify(todoRepository, times(3)).deleteChunkOfAssignee("u1", 2);
+    }
+}
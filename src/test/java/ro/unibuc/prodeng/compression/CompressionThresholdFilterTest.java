@@ -0,0 +1,87 @@
+package ro.unibuc.prodeng.compression;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionThresholdFilterTest {
+
+    @Test
+    void testDoFilter_apiResponseFlushed_isNotCommittedBeforeItCompletes() throws Exception {
+        // Arrange
+        CompressionThresholdFilter filter = new CompressionThresholdFilter(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+            res.flushBuffer();
+        });
+
+        // Assert
+        assertFalse(response.isCommitted());
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void testDoFilter_ndjsonStreamFlushed_commitsEachFlush() throws Exception {
+        // Arrange
+        CompressionThresholdFilter filter = new CompressionThresholdFilter(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        StringBuilder seenAfterFirstFlush = new StringBuilder();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            res.getOutputStream().write("{\"id\":\"1\"}\n".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+            seenAfterFirstFlush.append(response.isCommitted());
+            res.getOutputStream().write("{\"id\":\"2\"}\n".getBytes(StandardCharsets.UTF_8));
+        });
+
+        // Assert
+        assertEquals("true", seenAfterFirstFlush.toString());
+        assertEquals("{\"id\":\"1\"}\n{\"id\":\"2\"}\n", response.getContentAsString());
+    }
+
+    @Test
+    void testDoFilter_jsonContentTypeFlushed_isNotCommittedBeforeItCompletes() throws Exception {
+        // Arrange
+        CompressionThresholdFilter filter = new CompressionThresholdFilter(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+            res.flushBuffer();
+        });
+
+        // Assert
+        assertFalse(response.isCommitted());
+    }
+
+    @Test
+    void testDoFilter_compressionDisabled_passesFlushesThrough() throws Exception {
+        // Arrange
+        CompressionThresholdFilter filter = new CompressionThresholdFilter(false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> res.getOutputStream().flush());
+
+        // Assert
+        assertTrue(response.isCommitted());
+    }
+}
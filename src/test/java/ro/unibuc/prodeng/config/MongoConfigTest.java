@@ -0,0 +1,60 @@
+package ro.unibuc.prodeng.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoConfigTest {
+
+    private static final String URL =
+            "mongodb://localhost:27017/?maxPoolSize=7&readPreference=secondaryPreferred&compressors=zlib&connectTimeoutMS=1234";
+
+    @Test
+    void testClientSettings_propertiesUnset_keepsConnectionStringOptions() {
+        // Arrange
+        MongoClientProperties properties = properties(new MongoClientProperties.Pool(null, null, null, null), null, List.of(), null);
+
+        // Act
+        MongoClientSettings settings = MongoConfig.clientSettings(properties, new SimpleMeterRegistry());
+
+        // Assert
+        assertEquals(7, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(ReadPreference.secondaryPreferred(), settings.getReadPreference());
+        assertEquals(settings.getReadPreference(), properties.effectiveReadPreference());
+        assertEquals(List.of(MongoCompressor.createZlibCompressor()), settings.getCompressorList());
+        assertEquals(1234, settings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testClientSettings_propertiesSet_overrideConnectionStringOptions() {
+        // Arrange
+        MongoClientProperties properties = properties(new MongoClientProperties.Pool(50, null, null, null),
+                Duration.ofSeconds(3), List.of("snappy"), "primary");
+
+        // Act
+        MongoClientSettings settings = MongoConfig.clientSettings(properties, new SimpleMeterRegistry());
+
+        // Assert
+        assertEquals(50, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(ReadPreference.primary(), settings.getReadPreference());
+        assertEquals(settings.getReadPreference(), properties.effectiveReadPreference());
+        assertEquals(List.of(MongoCompressor.createSnappyCompressor()), settings.getCompressorList());
+        assertEquals(3000, settings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS));
+    }
+
+    private static MongoClientProperties properties(MongoClientProperties.Pool pool, Duration connectTimeout,
+                                                    List<String> compressors, String readPreference) {
+        return new MongoClientProperties(new MongoClientProperties.Connection(URL), "test", pool, connectTimeout,
+                null, compressors, readPreference, true);
+    }
+}
@@ -10,9 +10,15 @@ import ro.unibuc.prodeng.request.CreateUserRequest;
 
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -37,13 +43,24 @@ class TodoControllerIntegrationTest extends IntegrationTestBase {
         userRepository.deleteAll();
     }
 
-    private void createUser(String name, String email) throws Exception {
+    private String createUser(String name, String email) throws Exception {
         CreateUserRequest request = new CreateUserRequest(name, email);
 
-        mockMvc.perform(post("/api/users")
+        String response = mockMvc.perform(post("/api/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        return objectMapper.readTree(response).get("id").asText();
+    }
+
+    private String eTagOf(String url) throws Exception {
+        String eTag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
     }
 
     private String createTodo(String description, String assigneeEmail) throws Exception {
@@ -96,6 +113,88 @@ class TodoControllerIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    void testGetTodosByUser_doneFilter_returnsOnlyMatchingTodos() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String doneId = createTodo("Buy milk", "alice@example.com");
+        createTodo("Walk the dog", "alice@example.com");
+        mockMvc.perform(patch("/api/todos/" + doneId + "/done")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("true"))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/todos").param("assigneeEmail", "alice@example.com").param("done", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(doneId));
+
+        mockMvc.perform(get("/api/todos").param("assigneeEmail", "alice@example.com").param("done", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].description").value("Walk the dog"));
+    }
+
+    @Test
+    void testGetTodosPage_moreTodosThanLimit_pagesThroughAllTodos() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String first = createTodo("Buy milk", "alice@example.com");
+        String second = createTodo("Walk the dog", "alice@example.com");
+        String third = createTodo("Clean house", "alice@example.com");
+
+        // Act & Assert
+        String response = mockMvc.perform(get("/api/todos")
+                        .param("assigneeEmail", "alice@example.com")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(first))
+                .andExpect(jsonPath("$.items[1].id").value(second))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/todos")
+                        .param("assigneeEmail", "alice@example.com")
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(third))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testCreateTodosInBulk_mixedAssignees_createsValidTodosAndReportsFailures() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        createUser("Bob", "bob@example.com");
+        List<CreateTodoRequest> requests = List.of(
+                new CreateTodoRequest("Buy milk", "alice@example.com"),
+                new CreateTodoRequest("Clean house", "bob@example.com"),
+                new CreateTodoRequest("Walk the dog", "nonexistent@example.com"),
+                new CreateTodoRequest("", "alice@example.com")
+        );
+
+        // Act & Assert
+        mockMvc.perform(post("/api/todos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].created").value(true))
+                .andExpect(jsonPath("$.results[2].error").value("Entity: nonexistent@example.com was not found"))
+                .andExpect(jsonPath("$.results[3].error").value("Description is required"));
+
+        mockMvc.perform(get("/api/todos").param("assigneeEmail", "alice@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].description").value("Buy milk"));
+    }
+
     @Test
     void testSetDone_toggleDoneStatus_updatesStatusCorrectly() throws Exception {
         // Arrange
@@ -161,6 +260,96 @@ class TodoControllerIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    void testGetTodoById_currentETagSent_returnsNotModifiedWithoutBody() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+        String eTag = eTagOf("/api/todos/" + todoId);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/todos/" + todoId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetTodoById_wildcardSent_returnsNotModified() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/todos/" + todoId).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetTodoById_staleETagAfterDoneToggle_returnsTodoWithNewETag() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+        String staleETag = eTagOf("/api/todos/" + todoId);
+        mockMvc.perform(patch("/api/todos/" + todoId + "/done")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("true"))
+                .andExpect(status().isOk());
+
+        // Act
+        String newETag = mockMvc.perform(get("/api/todos/" + todoId).header(HttpHeaders.IF_NONE_MATCH, staleETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.done").value(true))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        assertNotNull(newETag);
+        assertNotEquals(staleETag, newETag);
+    }
+
+    @Test
+    void testGetTodoById_assigneeRenamed_changesETag() throws Exception {
+        // Arrange
+        String aliceId = createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+        String staleETag = eTagOf("/api/todos/" + todoId);
+        mockMvc.perform(patch("/api/users/" + aliceId + "/name")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Alice Cooper\"}"))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/todos/" + todoId).header(HttpHeaders.IF_NONE_MATCH, staleETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assigneeName").value("Alice Cooper"))
+                .andExpect(header().string(HttpHeaders.ETAG, not(staleETag)));
+    }
+
+    @Test
+    void testGetTodosByUser_currentETagSent_returnsNotModifiedUntilATodoChanges() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+        String url = "/api/todos?assigneeEmail=alice@example.com";
+        String eTag = eTagOf(url);
+
+        // Act & Assert
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/todos/" + todoId + "/done")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("true"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].done").value(true))
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
     @Test
     void testGetTodoById_nonExistentTodo_returnsNotFound() throws Exception {
         // Arrange
@@ -2,9 +2,12 @@ package ro.unibuc.prodeng.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import ro.unibuc.prodeng.compression.CompressionThresholdFilter;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
 import ro.unibuc.prodeng.request.ChangeNameRequest;
 import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.ETagged;
 import ro.unibuc.prodeng.response.UserResponse;
 import ro.unibuc.prodeng.service.UserService;
 
@@ -13,14 +16,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -40,6 +48,7 @@ class UserControllerTest {
     
     private MockMvc mockMvc;
 
+    @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
     
     private UserResponse testUser1 = new UserResponse("1", "John Doe", "john@example.com");
@@ -87,35 +96,120 @@ class UserControllerTest {
         verify(userService, times(1)).getAllUsers();
     }
     
+    @Test
+    void testGetUsersPage_limitProvided_returnsPageWithCursor() throws Exception {
+        // Arrange
+        when(userService.getUsersPage(2, null)).thenReturn(new PageResponse<>(Arrays.asList(testUser1, testUser2), "next"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is("1")))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllUsers_ndjsonAccepted_writesOneUserPerLine() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(testUser1);
+            consumer.accept(testUser2);
+            return null;
+        }).when(userService).streamAllUsers(any(Consumer.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(testUser2, objectMapper.readValue(lines[1], UserResponse.class));
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllUsers_compressionThresholdFilterActive_streamIsCommittedAsItIsWritten() throws Exception {
+        // Arrange
+        MockMvc filtered = MockMvcBuilders.standaloneSetup(userController)
+                .addFilters(new CompressionThresholdFilter(true))
+                .build();
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(testUser1);
+            consumer.accept(testUser2);
+            return null;
+        }).when(userService).streamAllUsers(any(Consumer.class));
+
+        // Act
+        MvcResult result = filtered.perform(get("/api/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        // Assert
+        assertTrue(result.getResponse().isCommitted());
+        String body = filtered.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(2, body.split("\n").length);
+    }
+
     @Test
     void testGetUserById_existingUserRequested_returnsUser() throws Exception {
         // Arrange
         String userId = "1";
-        when(userService.getUserById(userId)).thenReturn(testUser1);
+        when(userService.getTaggedUserById(userId)).thenReturn(new ETagged<>("\"3\"", testUser1));
         
         // Act & Assert
         mockMvc.perform(get("/api/users/{id}", userId)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
                 .andExpect(jsonPath("$.id", is("1")))
                 .andExpect(jsonPath("$.name", is("John Doe")))
                 .andExpect(jsonPath("$.email", is("john@example.com")));
         
-        verify(userService, times(1)).getUserById(userId);
+        verify(userService, times(1)).getTaggedUserById(userId);
+    }
+
+    @Test
+    void testGetUserById_matchingIfNoneMatch_returnsNotModifiedWithoutBody() throws Exception {
+        // Arrange
+        String userId = "1";
+        when(userService.getTaggedUserById(userId)).thenReturn(new ETagged<>("\"3\"", testUser1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users/{id}", userId)
+                .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
     }
     
     @Test
     void testGetUserById_nonExistingUserRequested_returnsNotFound() throws Exception {
         // Arrange
         String userId = "999";
-        when(userService.getUserById(userId)).thenThrow(new EntityNotFoundException("User"));
+        when(userService.getTaggedUserById(userId)).thenThrow(new EntityNotFoundException("User"));
         
         // Act & Assert
         mockMvc.perform(get("/api/users/{id}", userId)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
         
-        verify(userService, times(1)).getUserById(userId);
+        verify(userService, times(1)).getTaggedUserById(userId);
     }
     
     @Test
@@ -0,0 +1,55 @@
+package ro.unibuc.prodeng.etag;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ro.unibuc.prodeng.model.TodoVersion;
+import ro.unibuc.prodeng.model.UserEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    private final UserEntity alice = new UserEntity("u1", "Alice", "alice@example.com", 1L);
+
+    @Test
+    void testOfList_sameTodosInAnyOrder_yieldsSameTag() {
+        // Arrange
+        TodoVersion first = new TodoVersion("t1", 0L, "u1", null);
+        TodoVersion second = new TodoVersion("t2", 3L, "u1", null);
+
+        // Act & Assert
+        assertEquals(ETags.ofList(alice, List.of(first, second)), ETags.ofList(alice, List.of(second, first)));
+    }
+
+    @Test
+    void testOfList_todoOrAssigneeVersionChanged_yieldsDifferentTag() {
+        // Arrange
+        List<TodoVersion> todos = List.of(new TodoVersion("t1", 0L, "u1", null));
+        String original = ETags.ofList(alice, todos);
+
+        // Act
+        String todoChanged = ETags.ofList(alice, List.of(new TodoVersion("t1", 1L, "u1", null)));
+        String assigneeRenamed = ETags.ofList(new UserEntity("u1", "Alicia", "alice@example.com", 2L), todos);
+
+        // Assert
+        assertNotEquals(original, todoChanged);
+        assertNotEquals(original, assigneeRenamed);
+    }
+
+    @Test
+    void testMatches_weakOrListedOrWildcardTags_matchCurrentTag() {
+        // Arrange
+        String eTag = ETags.of(4L, alice);
+
+        // Act & Assert
+        assertEquals("W/\"4.1\"", eTag);
+        assertTrue(ETags.matches("\"4.1\"", eTag));
+        assertTrue(ETags.matches("W/\"4.1\"", eTag));
+        assertTrue(ETags.matches("\"3.1\", \"4.1\"", eTag));
+        assertTrue(ETags.matches("*", eTag));
+        assertFalse(ETags.matches("\"3.1\"", eTag));
+        assertFalse(ETags.matches(null, eTag));
+    }
+}
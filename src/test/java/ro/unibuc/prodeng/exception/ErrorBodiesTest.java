@@ -0,0 +1,40 @@
+package ro.unibuc.prodeng.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorBodiesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testNotFound_plainId_matchesJacksonSerializationOfErrorMap() throws Exception {
+        // Arrange
+        EntityNotFoundException ex = new EntityNotFoundException("6ad319b429323d1e3ef36b9e");
+
+        // Act
+        byte[] body = ErrorBodies.notFound(ex);
+
+        // Assert
+        assertEquals(objectMapper.writeValueAsString(Map.of("error", ex.getMessage())),
+                new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testNotFound_idNeedingEscapes_producesValidJson() throws Exception {
+        // Arrange
+        EntityNotFoundException ex = new EntityNotFoundException("a\"b\\c\nd ţ@example.com");
+
+        // Act
+        byte[] body = ErrorBodies.notFound(ex);
+
+        // Assert
+        assertEquals(ex.getMessage(), objectMapper.readTree(body).get("error").asText());
+    }
+}
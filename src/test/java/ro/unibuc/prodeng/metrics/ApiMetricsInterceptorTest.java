@@ -0,0 +1,122 @@
+package ro.unibuc.prodeng.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.controller.UserController;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.GlobalExceptionHandler;
+import ro.unibuc.prodeng.response.ETagged;
+import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.service.UserService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+class ApiMetricsInterceptorTest {
+
+    @Mock
+    private UserService userService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private UserController userController;
+
+    @InjectMocks
+    private ApiMetricsInterceptor apiMetricsInterceptor;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addInterceptors(apiMetricsInterceptor)
+                .build();
+    }
+
+    @Test
+    void testGetUserById_existingUser_recordsOkOutcomeAndInfoSeries() throws Exception {
+        // Arrange
+        when(userService.getTaggedUserById("1"))
+                .thenReturn(new ETagged<>("\"0\"", new UserResponse("1", "John Doe", "john@example.com")));
+
+        // Act
+        mockMvc.perform(get("/api/users/1")).andExpect(status().isOk());
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("prod_eng.api.users.count")
+                .tags("endpoint", "getUserById", "method", "GET", "outcome", "ok").counter().count());
+        assertEquals(1, meterRegistry.get("prod_eng.api.users.time")
+                .tags("endpoint", "getUserById", "outcome", "ok").timer().count());
+        assertEquals(1.0, meterRegistry.get("prod_eng.info.count")
+                .tags("resource", "users", "endpoint", "getUserById").counter().count());
+    }
+
+    @Test
+    void testGetUserById_nonExistingUser_recordsNotFoundOutcome() throws Exception {
+        // Arrange
+        when(userService.getTaggedUserById("999")).thenThrow(new EntityNotFoundException("999"));
+
+        // Act
+        mockMvc.perform(get("/api/users/999")).andExpect(status().isNotFound());
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("prod_eng.api.users.count")
+                .tags("endpoint", "getUserById", "outcome", "not_found").counter().count());
+    }
+
+    @Test
+    void testCreateUser_invalidBody_recordsValidationErrorOutsideInfoSeries() throws Exception {
+        // Act
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"\",\"email\":\"not-an-email\"}"))
+                .andExpect(status().isBadRequest());
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("prod_eng.api.users.count")
+                .tags("endpoint", "createUser", "method", "POST", "outcome", "validation_error").counter().count());
+        assertNull(meterRegistry.find("prod_eng.info.count").counter());
+        verify(userService, never()).createUser(any());
+    }
+
+    @Test
+    void testGetUserById_serviceIssuesMongoCommands_recordsCommandsPerRequest() throws Exception {
+        // Arrange
+        MongoCallCounter listener = new MongoCallCounter();
+        when(userService.getTaggedUserById("1")).thenAnswer(invocation -> {
+            listener.commandStarted(null);
+            listener.commandStarted(null);
+            return new ETagged<>("\"0\"", new UserResponse("1", "John Doe", "john@example.com"));
+        });
+
+        // Act
+        mockMvc.perform(get("/api/users/1")).andExpect(status().isOk());
+
+        // Assert
+        assertEquals(2.0, meterRegistry.get("prod_eng.api.users.mongo.calls")
+                .tags("endpoint", "getUserById").summary().totalAmount());
+        assertEquals(0, MongoCallCounter.end());
+    }
+}
@@ -0,0 +1,183 @@
+package ro.unibuc.prodeng.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ro.unibuc.prodeng.cache.MissingTodoCache;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoVersion;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.service.TodoService;
+import ro.unibuc.prodeng.sharding.TodoSharding;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class ReactiveTodoServiceTest {
+
+    @Mock
+    private ReactiveTodoRepository todoRepository;
+
+    @Mock
+    private ReactiveUserService userService;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private TodoService todoService;
+
+    @Spy
+    private MissingTodoCache missingTodoCache = new MissingTodoCache(true, 100, Duration.ofMinutes(1), true, new SimpleMeterRegistry());
+
+    @Spy
+    private AssigneeSnapshots assigneeSnapshots = new AssigneeSnapshots(false, false, null, null, new SimpleMeterRegistry());
+
+    @Spy
+    private TodoStatsCache todoStatsCache = new TodoStatsCache(false, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+
+    @Mock
+    private TodoSharding todoSharding;
+
+    @InjectMocks
+    private ReactiveTodoService reactiveTodoService;
+
+    private final UserEntity alice = new UserEntity("u1", "Alice", "alice@example.com");
+
+    @Test
+    void testGetTaggedTodoById_nonExistingTodoRequested_emitsEntityNotFoundException() {
+        // Arrange
+        when(todoRepository.findById("999")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(reactiveTodoService.getTaggedTodoById("999"))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+        verify(userService, never()).getUserEntityById(anyString());
+    }
+
+    @Test
+    void testGetTodosByAssignee_doneFilterGiven_queriesByAssigneeAndDone() {
+        // Arrange
+        when(todoRepository.findByAssignedUserIdAndDone("u1", true))
+                .thenReturn(Flux.just(new TodoEntity("t1", "Buy milk", true, "u1")));
+
+        // Act & Assert
+        StepVerifier.create(reactiveTodoService.getTodosByAssignee(alice, true))
+                .assertNext(todo -> {
+                    assertEquals("t1", todo.id());
+                    assertEquals("Alice", todo.assigneeName());
+                })
+                .verifyComplete();
+        verify(todoRepository, never()).findByAssignedUserId(anyString());
+    }
+
+    @Test
+    void testSetDone_existingTodo_returnsUpdatedTodoWithAssignee() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(TodoEntity.class)))
+                .thenReturn(Mono.just(new TodoEntity("t1", "Buy milk", true, "u1")));
+        when(userService.getUserEntityById("u1")).thenReturn(Mono.just(alice));
+
+        // Act & Assert
+        StepVerifier.create(reactiveTodoService.setDone("t1", true))
+                .assertNext(todo -> {
+                    assertTrue(todo.done());
+                    assertEquals("alice@example.com", todo.assigneeEmail());
+                })
+                .verifyComplete();
+        verify(todoRepository, never()).findVersionById(anyString());
+    }
+
+    @Test
+    void testSetDone_nonExistingTodo_emitsEntityNotFoundException() {
+        // Arrange
+        when(todoSharding.isEnabled()).thenReturn(true);
+        when(todoRepository.findVersionById("999")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(reactiveTodoService.setDone("999", true))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(TodoEntity.class));
+    }
+
+    @Test
+    void testSetDone_todoReassignedBeforeWrite_retriesWithNewAssignee() {
+        // Arrange
+        when(todoSharding.isEnabled()).thenReturn(true);
+        when(todoRepository.findVersionById("t1"))
+                .thenReturn(Mono.just(new TodoVersion("t1", 0L, "u1", null)))
+                .thenReturn(Mono.just(new TodoVersion("t1", 1L, "u2", null)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(TodoEntity.class)))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(new TodoEntity("t1", "Buy milk", true, "u2")));
+        when(userService.getUserEntityById("u2")).thenReturn(Mono.just(alice));
+
+        // Act & Assert
+        StepVerifier.create(reactiveTodoService.setDone("t1", true))
+                .assertNext(todo -> assertTrue(todo.done()))
+                .verifyComplete();
+        verify(todoRepository, times(2)).findVersionById("t1");
+    }
+
+    @Test
+    void testSetDone_todoKeepsBeingReassigned_givesUpAfterBoundedAttempts() {
+        // Arrange
+        when(todoSharding.isEnabled()).thenReturn(true);
+        when(todoRepository.findVersionById("t1")).thenReturn(Mono.just(new TodoVersion("t1", 0L, "u1", null)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(TodoEntity.class)))
+                .thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(reactiveTodoService.setDone("t1", true))
+                .expectError(ConcurrencyFailureException.class)
+                .verify();
+        verify(todoRepository, times(TodoSharding.WRITE_ATTEMPTS)).findVersionById("t1");
+    }
+
+    @Test
+    void testAssign_existingTodo_marksPreviousAndNewAssigneeForRecount() {
+        // Arrange
+        UserEntity bob = new UserEntity("u2", "Bob", "bob@example.com");
+        when(userService.getUserEntityByEmail("bob@example.com")).thenReturn(Mono.just(bob));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(TodoEntity.class)))
+                .thenReturn(Mono.just(new TodoEntity("t1", "Buy milk", false, "u1")));
+
+        // Act & Assert
+        StepVerifier.create(reactiveTodoService.assign("t1", new AssignTodoRequest("bob@example.com")))
+                .assertNext(todo -> assertEquals("bob@example.com", todo.assigneeEmail()))
+                .verifyComplete();
+        verify(todoStatsCache, times(1)).assigneeChanged("u1");
+        verify(todoStatsCache, times(1)).assigneeChanged("u2");
+        verify(todoRepository, never()).findVersionById(anyString());
+    }
+}
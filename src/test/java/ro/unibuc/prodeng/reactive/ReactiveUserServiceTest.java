@@ -0,0 +1,119 @@
+package ro.unibuc.prodeng.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ro.unibuc.prodeng.cache.EmailBloomFilter;
+import ro.unibuc.prodeng.cache.UserCache;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private EmailBloomFilter emailFilter = new EmailBloomFilter(true, 1000, 0.01, new SimpleMeterRegistry());
+
+    @Mock
+    private AssigneeSnapshots assigneeSnapshots;
+
+    @InjectMocks
+    private ReactiveUserService userService;
+
+    private final UserEntity alice = new UserEntity("u1", "Alice", "alice@example.com");
+
+    @Test
+    void testGetUserEntityById_cachedUser_doesNotQueryRepository() {
+        // Arrange
+        userCache.put(alice);
+
+        // Act & Assert
+        StepVerifier.create(userService.getUserEntityById("u1"))
+                .expectNext(alice)
+                .verifyComplete();
+        verify(userRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void testGetUserEntityById_uncachedUser_loadsAndCachesUser() {
+        // Arrange
+        when(userRepository.findById("u1")).thenReturn(Mono.just(alice));
+
+        // Act & Assert
+        StepVerifier.create(userService.getUserEntityById("u1"))
+                .expectNext(alice)
+                .verifyComplete();
+        assertEquals(Optional.of(alice), userCache.getByEmail("alice@example.com"));
+    }
+
+    @Test
+    void testGetUserByEmail_unknownEmail_emitsEntityNotFoundException() {
+        // Arrange
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(userService.getUserByEmail("nobody@example.com"))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testCreateUser_existingEmail_emitsIllegalArgumentException() {
+        // Arrange
+        when(userRepository.save(any())).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+
+        // Act & Assert
+        StepVerifier.create(userService.createUser(new CreateUserRequest("Alice", "alice@example.com")))
+                .expectErrorMessage("Email already exists: alice@example.com")
+                .verify();
+        assertTrue(userCache.getByEmail("alice@example.com").isEmpty());
+    }
+
+    @Test
+    void testDeleteUser_existingUser_invalidatesCache() {
+        // Arrange
+        userCache.put(alice);
+        when(userRepository.existsById("u1")).thenReturn(Mono.just(true));
+        when(userRepository.deleteById("u1")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(userService.deleteUser("u1")).verifyComplete();
+        assertTrue(userCache.getById("u1").isEmpty());
+    }
+
+    @Test
+    void testGetUsersPage_limitOutOfRange_emitsErrorInsteadOfThrowing() {
+        // Act & Assert
+        StepVerifier.create(userService.getUsersPage(0, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+}
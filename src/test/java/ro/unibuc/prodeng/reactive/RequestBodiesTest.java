@@ -0,0 +1,44 @@
+package ro.unibuc.prodeng.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.web.server.ServerWebInputException;
+
+class RequestBodiesTest {
+
+    @Test
+    void testOptionalBooleanParam_trueOrFalseGiven_returnsValue() {
+        // Arrange
+        MockServerRequest request = MockServerRequest.builder().queryParam("done", "TRUE").build();
+        MockServerRequest other = MockServerRequest.builder().queryParam("done", "false").build();
+
+        // Act & Assert
+        assertEquals(Boolean.TRUE, RequestBodies.optionalBooleanParam(request, "done"));
+        assertEquals(Boolean.FALSE, RequestBodies.optionalBooleanParam(other, "done"));
+    }
+
+    @Test
+    void testOptionalBooleanParam_paramMissing_returnsNull() {
+        // Arrange
+        MockServerRequest request = MockServerRequest.builder().build();
+
+        // Act
+        Boolean result = RequestBodies.optionalBooleanParam(request, "done");
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void testOptionalBooleanParam_invalidValueGiven_throwsServerWebInputException() {
+        // Arrange
+        MockServerRequest request = MockServerRequest.builder().queryParam("done", "abc").build();
+
+        // Act & Assert
+        assertThrows(ServerWebInputException.class, () -> RequestBodies.optionalBooleanParam(request, "done"));
+    }
+}
@@ -0,0 +1,111 @@
+package ro.unibuc.prodeng.repository;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import ro.unibuc.prodeng.IntegrationTestBase;
+import ro.unibuc.prodeng.model.TodoEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Todo index usage Integration Tests")
+class TodoIndexIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void testPageQuery_filteredByAssigneeAndDone_usesAssigneeDoneIndex() {
+        // Arrange
+        Query query = TodoQueries.page(
+                new ObjectId().toHexString(), false, new ObjectId().toHexString(), 11);
+
+        // Act
+        Document winningPlan = explainPageQuery(query);
+
+        // Assert
+        assertEquals(List.of("assignee_done_id"), collect(winningPlan, "indexName"));
+        assertFalse(collect(winningPlan, "stage").contains("COLLSCAN"));
+        assertFalse(collect(winningPlan, "stage").contains("SORT"));
+    }
+
+    @Test
+    void testPageQuery_filteredByAssigneeOnly_usesAssigneeIndex() {
+        // Arrange
+        Query query = TodoQueries.page(new ObjectId().toHexString(), null, null, 11);
+
+        // Act
+        Document winningPlan = explainPageQuery(query);
+
+        // Assert
+        assertEquals(List.of("assignee_id"), collect(winningPlan, "indexName"));
+        assertFalse(collect(winningPlan, "stage").contains("COLLSCAN"));
+        assertFalse(collect(winningPlan, "stage").contains("SORT"));
+    }
+
+    @Test
+    void testSearchPipeline_scopedToAssignee_matchesThroughTextIndex() {
+        // Arrange
+        Document match = new Document("$text", new Document("$search", "milk"))
+                .append("assignedUserId", new ObjectId().toHexString());
+        // Mirrors the pipeline built by TodoRepositoryCustomImpl.search
+        List<Document> pipeline = List.of(
+                new Document("$match", match),
+                new Document("$addFields", new Document("score", new Document("$meta", "textScore"))),
+                new Document("$sort", new Document("score", -1).append("_id", 1)),
+                new Document("$limit", 11));
+
+        // Act
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain",
+                new Document("aggregate", "todos").append("pipeline", pipeline).append("cursor", new Document()))
+                .append("verbosity", "queryPlanner"));
+
+        // Assert
+        assertTrue(collect(explain, "stage").contains("TEXT_MATCH"));
+        assertFalse(collect(explain, "stage").contains("COLLSCAN"));
+    }
+
+    // Explains the query findPage runs, mapped to field names and types the way MongoTemplate.find maps it
+    private Document explainPageQuery(Query query) {
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity =
+                mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(TodoEntity.class);
+        Document find = new Document("find", mongoTemplate.getCollectionName(TodoEntity.class))
+                .append("filter", mapper.getMappedObject(query.getQueryObject(), entity))
+                .append("sort", mapper.getMappedSort(query.getSortObject(), entity))
+                .append("limit", query.getLimit());
+        Document explain = mongoTemplate.getDb()
+                .runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+        return explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+    }
+
+    // Walks the plan tree (including per-shard plans behind mongos) collecting the values of a key
+    static List<String> collect(Object node, String key) {
+        List<String> values = new ArrayList<>();
+        if (node instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (key.equals(entry.getKey())) {
+                    values.add(String.valueOf(entry.getValue()));
+                } else if (!"rejectedPlans".equals(entry.getKey())) {
+                    values.addAll(collect(entry.getValue(), key));
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object element : list) {
+                values.addAll(collect(element, key));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,101 @@
+package ro.unibuc.prodeng.repository;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import ro.unibuc.prodeng.IntegrationTestBase;
+import ro.unibuc.prodeng.model.TodoEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ro.unibuc.prodeng.repository.TodoIndexIntegrationTest.collect;
+
+@DisplayName("Todo sharding Integration Tests")
+class TodoShardingIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Test
+    void testTodosCollection_afterStartup_isShardedOnDeclaredKey() {
+        // Arrange
+        String namespace = mongoTemplate.getDb().getName() + ".todos";
+
+        // Act
+        Document collection = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("config")
+                .getCollection("collections")
+                .find(new Document("_id", namespace))
+                .first();
+
+        // Assert
+        assertNotNull(collection);
+        assertEquals(new Document("assignedUserId", 1).append("_id", 1), collection.get("key", Document.class));
+    }
+
+    @Test
+    void testPageQuery_scopedToAssignee_targetsSingleShard() {
+        // Arrange
+        Document find = new Document("find", "todos")
+                .append("filter", new Document("assignedUserId", new ObjectId().toHexString()))
+                .append("sort", new Document("_id", 1))
+                .append("limit", 11);
+
+        // Act
+        Document winningPlan = explain(find);
+
+        // Assert
+        assertEquals("SINGLE_SHARD", winningPlan.getString("stage"));
+        assertEquals(1, winningPlan.getList("shards", Document.class).size());
+        assertFalse(collect(winningPlan, "stage").contains("COLLSCAN"));
+    }
+
+    @Test
+    void testFindAndModify_filteredOnFullShardKey_targetsSingleShard() {
+        // Arrange
+        // Mirrors the filter built by TodoRepositoryCustomImpl.findAndModify
+        Document findAndModify = new Document("findAndModify", "todos")
+                .append("query", new Document("_id", new ObjectId()).append("assignedUserId", new ObjectId().toHexString()))
+                .append("update", new Document("$set", new Document("done", true)))
+                .append("new", true);
+
+        // Act
+        Document winningPlan = explain(findAndModify);
+
+        // Assert
+        assertEquals("SINGLE_SHARD", winningPlan.getString("stage"));
+        assertFalse(collect(winningPlan, "stage").contains("COLLSCAN"));
+    }
+
+    @Test
+    void testUpdateAssignee_throughMongos_movesTodoToNewShardKeyValue() {
+        // Arrange
+        String from = new ObjectId().toHexString();
+        String to = new ObjectId().toHexString();
+        String id = new ObjectId().toHexString();
+        todoRepository.insertUnordered(List.of(new TodoEntity(id, "Buy milk", false, from)));
+
+        // Act
+        TodoEntity previous = todoRepository.updateAssignee(id, from, to, null).orElseThrow();
+        boolean staleWrite = todoRepository.updateDone(id, from, true).isPresent();
+        boolean deleted = todoRepository.deleteOne(id, to).isPresent();
+
+        // Assert
+        assertEquals(from, previous.assignedUserId());
+        assertFalse(staleWrite);
+        assertTrue(deleted);
+    }
+
+    private Document explain(Document command) {
+        Document explain = mongoTemplate.getDb()
+                .runCommand(new Document("explain", command).append("verbosity", "queryPlanner"));
+        return explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+    }
+}
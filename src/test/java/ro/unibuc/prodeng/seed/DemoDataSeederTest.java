@@ -0,0 +1,98 @@
+package ro.unibuc.prodeng.seed;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.UserRepository;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.service.TodoService;
+import ro.unibuc.prodeng.service.UserService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class DemoDataSeederTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TodoService todoService;
+
+    private DemoDataSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        seeder = new DemoDataSeeder(true, userRepository, todoRepository, userService, todoService);
+    }
+
+    @Test
+    void testSeed_emptyDatabase_createsUserAndTodo() throws EntityNotFoundException {
+        // Arrange
+        when(userRepository.findByEmail(DemoDataSeeder.EMAIL)).thenReturn(Optional.empty());
+
+        // Act
+        seeder.seed();
+
+        // Assert
+        verify(userService).createUser(any());
+        verify(todoService).createTodo(new CreateTodoRequest(DemoDataSeeder.TODO, DemoDataSeeder.EMAIL));
+    }
+
+    @Test
+    void testSeed_alreadySeeded_writesNothing() {
+        // Arrange
+        when(userRepository.findByEmail(DemoDataSeeder.EMAIL))
+                .thenReturn(Optional.of(new UserEntity("u1", "Frodo Baggins", DemoDataSeeder.EMAIL)));
+        when(todoRepository.existsByAssignedUserId("u1")).thenReturn(true);
+
+        // Act
+        seeder.seed();
+
+        // Assert
+        verifyNoInteractions(userService, todoService);
+    }
+
+    @Test
+    void testSeed_userSeededWithoutTodo_createsOnlyTodo() throws EntityNotFoundException {
+        // Arrange
+        when(userRepository.findByEmail(DemoDataSeeder.EMAIL))
+                .thenReturn(Optional.of(new UserEntity("u1", "Frodo Baggins", DemoDataSeeder.EMAIL)));
+        when(todoRepository.existsByAssignedUserId("u1")).thenReturn(false);
+
+        // Act
+        seeder.seed();
+
+        // Assert
+        verifyNoInteractions(userService);
+        verify(todoService).createTodo(new CreateTodoRequest(DemoDataSeeder.TODO, DemoDataSeeder.EMAIL));
+    }
+
+    @Test
+    void testSeed_anotherReplicaCreatedUserFirst_leavesTodoToThatReplica() {
+        // Arrange
+        when(userRepository.findByEmail(DemoDataSeeder.EMAIL)).thenReturn(Optional.empty());
+        when(userService.createUser(any())).thenThrow(new IllegalArgumentException("Email already exists"));
+
+        // Act
+        seeder.seed();
+
+        // Assert
+        verifyNoInteractions(todoService);
+    }
+}
@@ -0,0 +1,428 @@
+package ro.unibuc.prodeng.service;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import ro.unibuc.prodeng.cache.MissingTodoCache;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.model.AssigneeSnapshot;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoSearchHit;
+import ro.unibuc.prodeng.model.TodoStats;
+import ro.unibuc.prodeng.model.TodoVersion;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.response.BulkCreateTodoResponse;
+import ro.unibuc.prodeng.response.ETagged;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.response.TodoStatsResponse;
+import ro.unibuc.prodeng.sharding.TodoSharding;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
+import ro.unibuc.prodeng.writebehind.DoneWriteBehind;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.pagination.Pagination;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class TodoServiceTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private MissingTodoCache missingTodoCache = new MissingTodoCache(true, 100, Duration.ofMinutes(1), true, new SimpleMeterRegistry());
+
+    @Spy
+    private AssigneeSnapshots assigneeSnapshots = new AssigneeSnapshots(false, false, null, null, new SimpleMeterRegistry());
+
+    @Spy
+    private TodoStatsCache todoStatsCache = new TodoStatsCache(false, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+
+    @Spy
+    private DoneWriteBehind doneWriteBehind = new DoneWriteBehind(false, 10, 10, Duration.ZERO, null, null, new SimpleMeterRegistry());
+
+    @Mock
+    private TodoSharding todoSharding;
+
+    @InjectMocks
+    private TodoService todoService;
+
+    private final UserEntity alice = new UserEntity("u1", "Alice", "alice@example.com");
+
+    @Test
+    void testGetTodoById_existingTodoRequested_resolvesAssigneeInBatch() throws EntityNotFoundException {
+        // Arrange
+        when(todoRepository.findById("t1")).thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", false, "u1")));
+        when(userService.getUserEntitiesByIds(Set.of("u1"))).thenReturn(Map.of("u1", alice));
+
+        // Act
+        TodoResponse result = todoService.getTodoById("t1");
+
+        // Assert
+        assertEquals("Buy milk", result.description());
+        assertEquals("Alice", result.assigneeName());
+        assertEquals("alice@example.com", result.assigneeEmail());
+        verify(userService, never()).getUserEntityById(anyString());
+    }
+
+    @Test
+    void testGetTodoETag_existingTodo_matchesTagOfFullResponseWithoutLoadingTodo() throws EntityNotFoundException {
+        // Arrange
+        UserEntity versionedAlice = new UserEntity("u1", "Alice", "alice@example.com", 2L);
+        when(todoRepository.findById("t1")).thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", false, "u1", 5L, null)));
+        when(todoRepository.findVersion("t1")).thenReturn(Optional.of(new TodoVersion("t1", 5L, "u1", null)));
+        when(userService.getUserEntitiesByIds(Set.of("u1"))).thenReturn(Map.of("u1", versionedAlice));
+        when(userService.getUserEntityById("u1")).thenReturn(versionedAlice);
+
+        // Act
+        String eTag = todoService.getTodoETag("t1");
+
+        // Assert
+        assertEquals(todoService.getTaggedTodoById("t1").eTag(), eTag);
+        verify(todoRepository, times(1)).findById("t1");
+    }
+
+    @Test
+    void testGetTodoById_snapshotModeAndTodoCarriesSnapshot_skipsAssigneeLookup() throws EntityNotFoundException {
+        // Arrange
+        AssigneeSnapshots snapshotMode = new AssigneeSnapshots(true, false, todoRepository, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(todoService, "assigneeSnapshots", snapshotMode);
+        AssigneeSnapshot snapshot = new AssigneeSnapshot("Alice", "alice@example.com", 2L);
+        when(todoRepository.findById("t1")).thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", false, "u1", 5L, snapshot)));
+
+        // Act
+        ETagged<TodoResponse> result = todoService.getTaggedTodoById("t1");
+
+        // Assert
+        assertEquals("Alice", result.body().assigneeName());
+        assertEquals("W/\"5.2\"", result.eTag());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testGetTodoStats_moreAssigneesThanLimit_returnsPageWithCursorAfterLastAssignee() {
+        // Arrange
+        when(todoRepository.findStatsPage("u1", 3)).thenReturn(List.of(
+                new TodoStats("u2", "Bob", "bob@example.com", 3, 1),
+                new TodoStats("u3", null, null, 0, 2),
+                new TodoStats("u4", "Carol", "carol@example.com", 1, 0)));
+
+        // Act
+        PageResponse<TodoStatsResponse> page = todoService.getTodoStats(2, Pagination.encodeCursor("u1"));
+
+        // Assert
+        assertEquals(List.of(
+                new TodoStatsResponse("u2", "Bob", "bob@example.com", 3, 1),
+                new TodoStatsResponse("u3", null, null, 0, 2)), page.items());
+        assertEquals("u3", Pagination.decodeCursor(page.nextCursor()));
+    }
+
+    @Test
+    void testGetSparseTodosPageByUserEmail_idAndDoneRequested_projectsOnlyThoseFields() throws EntityNotFoundException {
+        // Arrange
+        when(userService.getUserEntityByEmail("alice@example.com")).thenReturn(alice);
+        when(todoRepository.findPageProjected("u1", null, null, 3, List.of("id", "done"))).thenReturn(List.of(
+                new TodoEntity("t1", null, true, null),
+                new TodoEntity("t2", null, false, null),
+                new TodoEntity("t3", null, false, null)));
+
+        // Act
+        PageResponse<Map<String, Object>> page = todoService.getSparseTodosPageByUserEmail(
+                "alice@example.com", null, "done,id", 2, null);
+
+        // Assert
+        assertEquals(List.of(Map.of("id", "t1", "done", true), Map.of("id", "t2", "done", false)), page.items());
+        assertEquals(List.of("id", "done"), List.copyOf(page.items().get(0).keySet()));
+        assertEquals("t2", Pagination.decodeCursor(page.nextCursor()));
+    }
+
+    @Test
+    void testGetSparseTodosByUserEmail_unknownField_throwsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> todoService.getSparseTodosByUserEmail("alice@example.com", null, "id,priority"));
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void testSearchTodos_cursorFromPreviousPage_continuesAfterLastHitAndSkipsOrphans() throws EntityNotFoundException {
+        // Arrange
+        String t1 = new ObjectId().toHexString();
+        String t2 = new ObjectId().toHexString();
+        String t3 = new ObjectId().toHexString();
+        TodoSearchHit milk = new TodoSearchHit(t1, "Buy milk", false, "u1", 0L, null, 1.5);
+        TodoSearchHit orphan = new TodoSearchHit(t2, "Buy milk again", false, "gone", 0L, null, 1.5);
+        TodoSearchHit bread = new TodoSearchHit(t3, "Buy bread", true, "u1", 0L, null, 0.75);
+        when(todoRepository.search("buy", null, null, null, null, 3)).thenReturn(List.of(milk, orphan, bread));
+        when(todoRepository.search("buy", null, null, 1.5, t2, 3)).thenReturn(List.of(bread));
+        when(userService.findUserEntitiesByIds(anyCollection())).thenReturn(Map.of("u1", alice));
+
+        // Act
+        PageResponse<TodoResponse> first = todoService.searchTodos("buy", null, null, 2, null);
+        PageResponse<TodoResponse> second = todoService.searchTodos("buy", null, null, 2, first.nextCursor());
+
+        // Assert
+        assertEquals(List.of(new TodoResponse(t1, "Buy milk", false, "Alice", "alice@example.com")), first.items());
+        assertEquals(List.of(new TodoResponse(t3, "Buy bread", true, "Alice", "alice@example.com")), second.items());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void testSearchTodos_writeBehindMode_flushesOnlyTogglesOfTodosSharingAWord() throws EntityNotFoundException {
+        // Arrange
+        DoneWriteBehind writeBehind = new DoneWriteBehind(true, 10, 10, Duration.ZERO, todoRepository, todoStatsCache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writeBehind, "running", true);
+        ReflectionTestUtils.setField(todoService, "doneWriteBehind", writeBehind);
+        writeBehind.enqueue(new TodoEntity("t1", "Buy milk", false, "u1"), true);
+        writeBehind.enqueue(new TodoEntity("t2", "Walk the dog", false, "u1"), true);
+        when(todoRepository.updateDoneAll(anyCollection())).thenReturn(1L);
+        when(todoRepository.search("MILK", null, null, null, null, 11)).thenReturn(List.of());
+
+        // Act
+        todoService.searchTodos("MILK", null, null, 10, null);
+
+        // Assert
+        verify(todoRepository, times(1)).updateDoneAll(List.of(new TodoEntity("t1", "Buy milk", true, "u1")));
+    }
+
+    @Test
+    void testSearchTodos_blankQuery_throwsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> todoService.searchTodos(" ", null, null, 10, null));
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void testGetTodoById_nonExistingTodoRequested_throwsEntityNotFoundException() {
+        // Arrange
+        when(todoRepository.findById("999")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> todoService.getTodoById("999"));
+    }
+
+    @Test
+    void testGetTodoById_recentlyConfirmedMissing_skipsRepository() {
+        // Arrange
+        when(todoRepository.findById("999")).thenReturn(Optional.empty());
+        assertThrows(EntityNotFoundException.class, () -> todoService.getTodoById("999"));
+
+        // Act & Assert
+        EntityNotFoundException thrown = assertThrows(EntityNotFoundException.class, () -> todoService.getTodoById("999"));
+        assertEquals("Entity: 999 was not found", thrown.getMessage());
+        assertEquals(0, thrown.getStackTrace().length);
+        verify(todoRepository, times(1)).findById("999");
+    }
+
+    @Test
+    void testDeleteTodo_existingTodo_marksIdMissingForLaterPolls() {
+        // Arrange
+        when(todoRepository.deleteOne("t1", null)).thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", false, "u1")));
+
+        // Act
+        todoService.deleteTodo("t1");
+
+        // Assert
+        assertThrows(EntityNotFoundException.class, () -> todoService.getTodoById("t1"));
+        verify(todoRepository, times(1)).deleteOne("t1", null);
+        verify(todoRepository, never()).findById(anyString());
+        verify(todoStatsCache, times(1)).assigneeChanged("u1");
+    }
+
+    @Test
+    void testDeleteTodo_sharded_deletesByShardKeyOfCurrentAssignee() {
+        // Arrange
+        when(todoSharding.isEnabled()).thenReturn(true);
+        when(todoRepository.findVersion("t1")).thenReturn(Optional.of(new TodoVersion("t1", 0L, "u1", null)));
+        when(todoRepository.deleteOne("t1", "u1")).thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", false, "u1")));
+
+        // Act
+        todoService.deleteTodo("t1");
+
+        // Assert
+        verify(todoRepository, times(1)).deleteOne("t1", "u1");
+    }
+
+    @Test
+    void testSetDone_existingTodo_updatesFieldInPlaceInOneRoundTrip() throws EntityNotFoundException {
+        // Arrange
+        when(todoRepository.updateDone("t1", null, true)).thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", true, "u1")));
+        when(userService.getUserEntitiesByIds(Set.of("u1"))).thenReturn(Map.of("u1", alice));
+
+        // Act
+        TodoResponse result = todoService.setDone("t1", true);
+
+        // Assert
+        assertTrue(result.done());
+        verify(todoRepository, never()).findVersion(anyString());
+        verify(todoRepository, never()).findById(anyString());
+        verify(todoRepository, never()).save(any());
+    }
+
+    @Test
+    void testSetDone_todoReassignedBeforeWrite_retriesWithNewAssignee() throws EntityNotFoundException {
+        // Arrange
+        when(todoSharding.isEnabled()).thenReturn(true);
+        when(todoRepository.findVersion("t1"))
+                .thenReturn(Optional.of(new TodoVersion("t1", 0L, "u1", null)))
+                .thenReturn(Optional.of(new TodoVersion("t1", 1L, "u2", null)));
+        when(todoRepository.updateDone("t1", "u1", true)).thenReturn(Optional.empty());
+        when(todoRepository.updateDone("t1", "u2", true)).thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", true, "u2")));
+        when(userService.getUserEntitiesByIds(Set.of("u2"))).thenReturn(Map.of("u2", alice));
+
+        // Act
+        TodoResponse result = todoService.setDone("t1", true);
+
+        // Assert
+        assertTrue(result.done());
+        verify(todoRepository, times(2)).findVersion("t1");
+    }
+
+    @Test
+    void testSetDone_todoKeepsBeingReassigned_givesUpAfterBoundedAttempts() {
+        // Arrange
+        when(todoSharding.isEnabled()).thenReturn(true);
+        when(todoRepository.findVersion("t1")).thenReturn(Optional.of(new TodoVersion("t1", 0L, "u1", null)));
+        when(todoRepository.updateDone("t1", "u1", true)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ConcurrencyFailureException.class, () -> todoService.setDone("t1", true));
+        verify(todoRepository, times(TodoSharding.WRITE_ATTEMPTS)).findVersion("t1");
+    }
+
+    @Test
+    void testSetDone_writeBehindMode_coalescesTogglesAndFlushesBeforeRead() throws EntityNotFoundException {
+        // Arrange
+        DoneWriteBehind writeBehind = new DoneWriteBehind(true, 10, 10, Duration.ZERO, todoRepository, todoStatsCache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writeBehind, "running", true);
+        ReflectionTestUtils.setField(todoService, "doneWriteBehind", writeBehind);
+        when(todoRepository.findById("t1")).thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", false, "u1")));
+        when(todoRepository.updateDoneAll(anyCollection())).thenReturn(1L);
+        when(userService.getUserEntitiesByIds(Set.of("u1"))).thenReturn(Map.of("u1", alice));
+
+        // Act
+        TodoResponse first = todoService.setDone("t1", true);
+        TodoResponse second = todoService.setDone("t1", false);
+        TodoResponse third = todoService.setDone("t1", true);
+        todoService.getTodoById("t1");
+
+        // Assert
+        assertTrue(first.done());
+        assertFalse(second.done());
+        assertTrue(third.done());
+        verify(todoRepository, never()).updateDone(anyString(), anyString(), anyBoolean());
+        verify(todoRepository, times(1)).updateDoneAll(List.of(new TodoEntity("t1", "Buy milk", true, "u1")));
+        verify(todoRepository, times(2)).findById("t1");
+    }
+
+    @Test
+    void testSetDone_nonExistingTodo_throwsEntityNotFoundException() {
+        // Arrange
+        when(todoRepository.updateDone("999", null, true)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> todoService.setDone("999", true));
+    }
+
+    @Test
+    void testAssign_unknownAssignee_doesNotTouchTodo() {
+        // Arrange
+        when(userService.getUserEntityByEmail("nobody@example.com")).thenThrow(new EntityNotFoundException("nobody@example.com"));
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class,
+                () -> todoService.assign("t1", new AssignTodoRequest("nobody@example.com")));
+        verify(todoRepository, never()).updateAssignee(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testAssign_existingTodo_marksPreviousAndNewAssigneeForRecount() throws EntityNotFoundException {
+        // Arrange
+        UserEntity bob = new UserEntity("u2", "Bob", "bob@example.com");
+        when(userService.getUserEntityByEmail("bob@example.com")).thenReturn(bob);
+        when(todoRepository.updateAssignee(eq("t1"), isNull(), eq("u2"), any()))
+                .thenReturn(Optional.of(new TodoEntity("t1", "Buy milk", false, "u1")));
+
+        // Act
+        TodoResponse result = todoService.assign("t1", new AssignTodoRequest("bob@example.com"));
+
+        // Assert
+        assertEquals("bob@example.com", result.assigneeEmail());
+        verify(todoStatsCache, times(1)).assigneeChanged("u1");
+        verify(todoStatsCache, times(1)).assigneeChanged("u2");
+        verify(todoRepository, never()).findVersion(anyString());
+    }
+
+    @Test
+    void testCreateTodos_mixedValidAndInvalidItems_reportsPerItemOutcome() {
+        // Arrange
+        List<CreateTodoRequest> requests = List.of(
+                new CreateTodoRequest("Buy milk", "alice@example.com"),
+                new CreateTodoRequest("", "alice@example.com"),
+                new CreateTodoRequest("Walk the dog", "nobody@example.com"),
+                new CreateTodoRequest("Clean house", "alice@example.com")
+        );
+        when(userService.getUserEntitiesByEmails(anyCollection())).thenReturn(Map.of("alice@example.com", alice));
+        when(todoRepository.insertUnordered(anyList())).thenReturn(Map.of(1, "duplicate key"));
+
+        // Act
+        BulkCreateTodoResponse result = todoService.createTodos(requests);
+
+        // Assert
+        assertEquals(1, result.created());
+        assertEquals(3, result.failed());
+        assertTrue(result.results().get(0).created());
+        assertNotNull(result.results().get(0).id());
+        assertEquals("Description is required", result.results().get(1).error());
+        assertEquals("Entity: nobody@example.com was not found", result.results().get(2).error());
+        assertEquals("duplicate key", result.results().get(3).error());
+        verify(userService, times(1)).getUserEntitiesByEmails(anyCollection());
+        verify(todoRepository, times(1)).insertUnordered(anyList());
+        verify(todoRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateTodos_tooManyItems_throwsIllegalArgumentException() {
+        // Arrange
+        List<CreateTodoRequest> requests = Collections.nCopies(
+                TodoService.MAX_BULK_SIZE + 1, new CreateTodoRequest("Buy milk", "alice@example.com"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> todoService.createTodos(requests));
+    }
+}
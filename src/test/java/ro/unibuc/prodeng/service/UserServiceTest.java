@@ -6,20 +6,36 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.cache.EmailBloomFilter;
+import ro.unibuc.prodeng.cache.UserCache;
+import ro.unibuc.prodeng.cascade.TodoCascade;
+import ro.unibuc.prodeng.cascade.UserDeletionJobs;
 import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
 import ro.unibuc.prodeng.repository.UserRepository;
+import ro.unibuc.prodeng.snapshot.AssigneeSnapshots;
+import ro.unibuc.prodeng.pagination.Pagination;
 import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.PageResponse;
 import ro.unibuc.prodeng.response.UserResponse;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
@@ -28,6 +44,21 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private EmailBloomFilter emailFilter = new EmailBloomFilter(true, 1000, 0.01, new SimpleMeterRegistry());
+
+    @Mock
+    private AssigneeSnapshots assigneeSnapshots;
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private UserDeletionJobs userDeletionJobs;
+
     @InjectMocks
     private UserService userService;
 
@@ -49,6 +80,35 @@ class UserServiceTest {
         assertEquals("Bob", result.get(1).name());
     }
 
+    @Test
+    void testGetUsersPage_moreUsersThanLimit_returnsCursorToNextPage() {
+        // Arrange
+        when(userRepository.findPageAfter(null, 3)).thenReturn(Arrays.asList(
+                new UserEntity("1", "Alice", "alice@example.com"),
+                new UserEntity("2", "Bob", "bob@example.com"),
+                new UserEntity("3", "Carol", "carol@example.com")
+        ));
+        when(userRepository.findPageAfter("2", 3)).thenReturn(List.of(new UserEntity("3", "Carol", "carol@example.com")));
+
+        // Act
+        PageResponse<UserResponse> first = userService.getUsersPage(2, null);
+        PageResponse<UserResponse> second = userService.getUsersPage(2, first.nextCursor());
+
+        // Assert
+        assertEquals(2, first.items().size());
+        assertEquals("2", Pagination.decodeCursor(first.nextCursor()));
+        assertEquals(1, second.items().size());
+        assertEquals("Carol", second.items().get(0).name());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void testGetUsersPage_limitOutOfRange_throwsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage(0, null));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage(Pagination.MAX_LIMIT + 1, null));
+    }
+
     @Test
     void testGetUserById_existingUserRequested_returnsUser() throws EntityNotFoundException {
         // Arrange
@@ -73,11 +133,58 @@ class UserServiceTest {
         assertThrows(EntityNotFoundException.class, () -> userService.getUserById("999"));
     }
 
+    @Test
+    void testGetUserEntitiesByIds_multipleIdsRequested_resolvesWithSingleQuery() throws EntityNotFoundException {
+        // Arrange
+        Set<String> ids = Set.of("1", "2");
+        when(userRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(
+                new UserEntity("1", "Alice", "alice@example.com"),
+                new UserEntity("2", "Bob", "bob@example.com")
+        ));
+
+        // Act
+        Map<String, UserEntity> result = userService.getUserEntitiesByIds(ids);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Alice", result.get("1").name());
+        assertEquals("Bob", result.get("2").name());
+        verify(userRepository, times(1)).findAllById(anyCollection());
+        verify(userRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void testGetUserEntitiesByIds_oneIdMissing_throwsEntityNotFoundException() {
+        // Arrange
+        Set<String> ids = Set.of("1", "999");
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(new UserEntity("1", "Alice", "alice@example.com")));
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserEntitiesByIds(ids));
+    }
+
+    @Test
+    void testGetUserEntityById_repeatedLookups_servedFromCache() throws EntityNotFoundException {
+        // Arrange
+        UserEntity user = new UserEntity("1", "Alice", "alice@example.com");
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+
+        // Act
+        userService.getUserEntityById("1");
+        UserEntity byId = userService.getUserEntityById("1");
+        UserEntity byEmail = userService.getUserEntityByEmail("alice@example.com");
+
+        // Assert
+        assertEquals(user, byId);
+        assertEquals(user, byEmail);
+        verify(userRepository, times(1)).findById("1");
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
     @Test
     void testCreateUser_newUserWithValidData_createsAndReturnsUser() {
         // Arrange
         CreateUserRequest request = new CreateUserRequest("Alice", "alice@example.com");
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(userRepository.save(any(UserEntity.class))).thenAnswer(invocation -> {
             UserEntity entity = invocation.getArgument(0);
             // Simulate MongoDB generating an ID for new entities
@@ -96,17 +203,49 @@ class UserServiceTest {
         verify(userRepository, times(1)).save(any(UserEntity.class));
     }
 
+    @Test
+    void testCreateUser_duplicateEmail_throwsIllegalArgumentException() {
+        // Arrange
+        CreateUserRequest request = new CreateUserRequest("Alice", "alice@example.com");
+        when(userRepository.save(any(UserEntity.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> userService.createUser(request));
+        assertEquals("Email already exists: alice@example.com", ex.getMessage());
+    }
+
+    @Test
+    void testGetUserEntityByEmail_emailNotInLoadedFilter_skipsRepository() {
+        // Arrange
+        when(userRepository.count()).thenReturn(0L);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.empty());
+        userService.rebuildEmailFilter();
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserEntityByEmail("nobody@example.com"));
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testGetUserEntityByEmail_userChangedAfterEmailLookup_cachesUserLoadedById() throws EntityNotFoundException {
+        // Arrange
+        when(userRepository.findByEmail("alice@example.com"))
+                .thenReturn(Optional.of(new UserEntity("1", "Alice", "alice@example.com", 1L)));
+        when(userRepository.findById("1")).thenReturn(Optional.of(new UserEntity("1", "Alicia", "alice@example.com", 2L)));
+
+        // Act
+        UserEntity user = userService.getUserEntityByEmail("alice@example.com");
+
+        // Assert
+        assertEquals("Alicia", user.name());
+        assertEquals("Alicia", userCache.getById("1").orElseThrow().name());
+    }
+
     @Test
     void testChangeName_existingUserRequested_changesNameSuccessfully() throws EntityNotFoundException {
         // Arrange
-        UserEntity existing = new UserEntity("1", "Alice", "alice@example.com");
-        when(userRepository.findById("1")).thenReturn(Optional.of(existing));
-        when(userRepository.save(any(UserEntity.class))).thenAnswer(invocation -> {
-            UserEntity entity = invocation.getArgument(0);
-            // Simulate MongoDB generating an ID for new entities
-            String id = entity.id() == null ? "generated-id-123" : entity.id();
-            return new UserEntity(id, entity.name(), entity.email());
-        });
+        when(userRepository.updateName("1", "Alicia"))
+                .thenReturn(Optional.of(new UserEntity("1", "Alicia", "alice@example.com", 1L)));
 
         // Act
         UserResponse result = userService.changeName("1", "Alicia");
@@ -116,12 +255,13 @@ class UserServiceTest {
         assertEquals("1", result.id());
         assertEquals("Alicia", result.name());
         assertEquals("alice@example.com", result.email());
+        assertEquals("Alicia", userService.getUserEntityByEmail("alice@example.com").name());
     }
 
     @Test
     void testChangeName_nonExistingUserRequested_throwsEntityNotFoundException() {
         // Arrange
-        when(userRepository.findById("999")).thenReturn(Optional.empty());
+        when(userRepository.updateName("999", "NewName")).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> userService.changeName("999", "NewName"));
@@ -132,11 +272,15 @@ class UserServiceTest {
         // Arrange
         when(userRepository.existsById("1")).thenReturn(true);
 
+        userCache.put(new UserEntity("1", "Alice", "alice@example.com"));
+
         // Act
         userService.deleteUser("1");
 
         // Assert
         verify(userRepository, times(1)).deleteById("1");
+        assertTrue(userCache.getById("1").isEmpty());
+        assertTrue(userCache.getByEmail("alice@example.com").isEmpty());
     }
 
     @Test
@@ -147,4 +291,58 @@ class UserServiceTest {
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> userService.deleteUser("999"));
     }
+
+    @Test
+    void testDeleteUserCascading_reassignToExistingUser_deletesUserAndQueuesReassignment() throws EntityNotFoundException {
+        // Arrange
+        UserEntity bob = new UserEntity("2", "Bob", "bob@example.com");
+        userCache.put(bob);
+        when(userRepository.existsById("1")).thenReturn(true);
+
+        // Act
+        userService.deleteUser("1", TodoCascade.REASSIGN, "bob@example.com");
+
+        // Assert
+        verify(userRepository, times(1)).deleteById("1");
+        verify(userDeletionJobs, times(1)).submit("1", TodoCascade.REASSIGN, "2", null);
+    }
+
+    @Test
+    void testDeleteUserCascading_userAlreadyDeletedButTodosLeft_queuesJobWithoutDeletingAgain() throws EntityNotFoundException {
+        // Arrange
+        when(userRepository.existsById("1")).thenReturn(false);
+        when(todoRepository.existsByAssignedUserId("1")).thenReturn(true);
+
+        // Act
+        userService.deleteUser("1", TodoCascade.DELETE, null);
+
+        // Assert
+        verify(userRepository, never()).deleteById("1");
+        verify(userDeletionJobs, times(1)).submit("1", TodoCascade.DELETE, null, null);
+    }
+
+    @Test
+    void testDeleteUserCascading_reassignToSameUser_throwsIllegalArgumentException() {
+        // Arrange
+        userCache.put(new UserEntity("1", "Alice", "alice@example.com"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.deleteUser("1", TodoCascade.REASSIGN, "alice@example.com"));
+        verify(userRepository, never()).deleteById("1");
+    }
+
+    @Test
+    void testGetSparseUsers_nameRequested_returnsNamesKeyedByField() {
+        // Arrange
+        when(userRepository.findPageAfterProjected(null, 0, List.of("name", "id"))).thenReturn(List.of(
+                new UserEntity("1", "Alice", null),
+                new UserEntity("2", "Bob", null)));
+
+        // Act
+        List<Map<String, Object>> users = userService.getSparseUsers("name");
+
+        // Assert
+        assertEquals(List.of(Map.of("name", "Alice"), Map.of("name", "Bob")), users);
+    }
 }
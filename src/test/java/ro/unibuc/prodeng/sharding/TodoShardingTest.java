@@ -0,0 +1,39 @@
+package ro.unibuc.prodeng.sharding;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import ro.unibuc.prodeng.model.TodoEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoShardingTest {
+
+    @Test
+    void testShardKey_todoEntity_mapsDeclaredPropertiesToRangedFields() {
+        // Arrange
+        MongoMappingContext mappingContext = new MongoMappingContext();
+
+        // Act
+        Document key = TodoSharding.shardKey(mappingContext.getRequiredPersistentEntity(TodoEntity.class));
+
+        // Assert
+        assertEquals(new Document("assignedUserId", 1).append("_id", 1), key);
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_disabled_doesNotTouchMongo() {
+        // Arrange
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        TodoSharding sharding = new TodoSharding(false, mongoTemplate);
+
+        // Act
+        sharding.afterSingletonsInstantiated();
+
+        // Assert
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,86 @@
+package ro.unibuc.prodeng.snapshot;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class AssigneeSnapshotsTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AssigneeSnapshots snapshots;
+
+    @BeforeEach
+    void setUp() {
+        snapshots = new AssigneeSnapshots(true, false, todoRepository, userRepository, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_repeatedRenamesOfOneUser_writesLatestVersionInOneBulk() {
+        // Arrange
+        snapshots.userChanged(new UserEntity("u1", "Alicia", "alice@example.com", 1L));
+        snapshots.userChanged(new UserEntity("u1", "Ally", "alice@example.com", 2L));
+        snapshots.userChanged(new UserEntity("u2", "Bobby", "bob@example.com", 4L));
+        ArgumentCaptor<Collection<UserEntity>> users = ArgumentCaptor.forClass(Collection.class);
+
+        // Act
+        snapshots.flush();
+        snapshots.flush();
+
+        // Assert
+        verify(todoRepository, times(1)).updateAssigneeSnapshots(users.capture());
+        assertEquals(List.of("Ally", "Bobby"), users.getValue().stream().map(UserEntity::name).sorted().toList());
+        assertEquals(2, meterRegistry.get("todos.assignee_snapshot.lag").timer().count());
+        assertEquals(0, meterRegistry.get("todos.assignee_snapshot.pending").gauge().value());
+    }
+
+    @Test
+    void testFlush_bulkFails_keepsChangesPending() {
+        // Arrange
+        snapshots.userChanged(new UserEntity("u1", "Alicia", "alice@example.com", 1L));
+        when(todoRepository.updateAssigneeSnapshots(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> snapshots.flush());
+        assertEquals(1, meterRegistry.get("todos.assignee_snapshot.pending").gauge().value());
+    }
+
+    @Test
+    void testUserChanged_modeDisabled_queuesNothing() {
+        // Arrange
+        AssigneeSnapshots disabled = new AssigneeSnapshots(false, false, todoRepository, userRepository, meterRegistry);
+
+        // Act
+        disabled.userChanged(new UserEntity("u1", "Alicia", "alice@example.com", 1L));
+        disabled.flush();
+
+        // Assert
+        assertNull(disabled.snapshotOf(new UserEntity("u1", "Alicia", "alice@example.com", 1L)));
+        verifyNoInteractions(todoRepository);
+    }
+}
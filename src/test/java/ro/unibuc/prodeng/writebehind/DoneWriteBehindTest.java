@@ -0,0 +1,164 @@
+package ro.unibuc.prodeng.writebehind;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.cache.TodoStatsCache;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class DoneWriteBehindTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private TodoStatsCache todoStatsCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DoneWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        writeBehind = new DoneWriteBehind(true, 2, 10, Duration.ZERO, todoRepository, todoStatsCache, meterRegistry);
+        // Accepting toggles without starting the background writer
+        ReflectionTestUtils.setField(writeBehind, "running", true);
+        when(todoRepository.updateDoneAll(anyCollection()))
+                .thenAnswer(invocation -> (long) invocation.getArgument(0, Collection.class).size());
+    }
+
+    @Test
+    void testEnqueue_queueFull_coalescesQueuedTodosButRejectsNewOnes() {
+        // Arrange
+        writeBehind.enqueue(new TodoEntity("t1", "Buy milk", false, "u1"), true);
+        writeBehind.enqueue(new TodoEntity("t2", "Walk dog", false, "u2"), true);
+
+        // Act
+        TodoEntity rejected = writeBehind.enqueue(new TodoEntity("t3", "Cook", false, "u1"), true);
+        TodoEntity coalesced = writeBehind.coalesce("t1", false);
+
+        // Assert
+        assertNull(rejected);
+        assertFalse(coalesced.done());
+        assertEquals(2, meterRegistry.get("todos.write_behind.pending").gauge().value());
+        assertEquals(1, meterRegistry.get("todos.write_behind.toggles").tag("result", "direct").counter().count());
+    }
+
+    @Test
+    void testFlushAssignee_pendingTogglesOfSeveralAssignees_writesOnlyThatAssigneesTodos() {
+        // Arrange
+        writeBehind.enqueue(new TodoEntity("t1", "Buy milk", false, "u1"), true);
+        writeBehind.enqueue(new TodoEntity("t2", "Walk dog", false, "u2"), true);
+
+        // Act
+        writeBehind.flushAssignee("u1");
+
+        // Assert
+        verify(todoRepository, times(1)).updateDoneAll(List.of(new TodoEntity("t1", "Buy milk", true, "u1")));
+        verify(todoStatsCache).assigneeChanged("u1");
+        assertEquals(1, meterRegistry.get("todos.write_behind.pending").gauge().value());
+        assertEquals(1, meterRegistry.get("todos.write_behind.lag").timer().count());
+    }
+
+    @Test
+    void testFlushAll_bulkFails_keepsTogglesQueued() {
+        // Arrange
+        writeBehind.enqueue(new TodoEntity("t1", "Buy milk", false, "u1"), true);
+        doThrow(new DataAccessResourceFailureException("down")).doReturn(1L).when(todoRepository).updateDoneAll(anyCollection());
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> writeBehind.flushAll());
+        writeBehind.flushAll();
+
+        // Assert
+        verify(todoRepository, times(2)).updateDoneAll(List.of(new TodoEntity("t1", "Buy milk", true, "u1")));
+        assertEquals(0, meterRegistry.get("todos.write_behind.pending").gauge().value());
+    }
+
+    @Test
+    void testFlush_toggledAgainWhileAnotherWriteRuns_writesNewerValueLast() throws Exception {
+        // Arrange
+        writeBehind.enqueue(new TodoEntity("t1", "Buy milk", false, "u1"), true);
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        List<Boolean> writes = new CopyOnWriteArrayList<>();
+        when(todoRepository.updateDoneAll(anyCollection())).thenAnswer(invocation -> {
+            TodoEntity todo = (TodoEntity) invocation.getArgument(0, List.class).get(0);
+            if (writes.isEmpty()) {
+                firstWriteStarted.countDown();
+                releaseFirstWrite.await(5, TimeUnit.SECONDS);
+            }
+            writes.add(todo.done());
+            return 1L;
+        });
+        Thread reader = new Thread(() -> writeBehind.flush("t1"));
+        reader.start();
+        firstWriteStarted.await(5, TimeUnit.SECONDS);
+
+        // Act
+        writeBehind.coalesce("t1", false);
+        Thread worker = new Thread(writeBehind::flushAll);
+        worker.start();
+        Thread.sleep(100);
+        releaseFirstWrite.countDown();
+        reader.join(5000);
+        worker.join(5000);
+
+        // Assert
+        assertEquals(List.of(true, false), writes);
+        assertEquals(0, meterRegistry.get("todos.write_behind.pending").gauge().value());
+    }
+
+    @Test
+    void testFlushAll_todoReassignedSinceQueued_writesItWithCurrentAssignee() {
+        // Arrange
+        writeBehind.enqueue(new TodoEntity("t1", "Buy milk", false, "u1"), true);
+        when(todoRepository.updateDoneAll(List.of(new TodoEntity("t1", "Buy milk", true, "u1")))).thenReturn(0L);
+        when(todoRepository.findAssignees(List.of("t1"))).thenReturn(Map.of("t1", "u2"));
+
+        // Act
+        writeBehind.flushAll();
+
+        // Assert
+        verify(todoRepository).updateDoneAll(List.of(new TodoEntity("t1", "Buy milk", true, "u2")));
+        verify(todoStatsCache).assigneeChanged("u2");
+        assertEquals(1, meterRegistry.get("todos.write_behind.lag").timer().count());
+        assertEquals(0, meterRegistry.get("todos.write_behind.toggles").tag("result", "dropped").counter().count());
+    }
+
+    @Test
+    void testFlushAll_todoDeletedSinceQueued_dropsAndCountsToggle() {
+        // Arrange
+        writeBehind.enqueue(new TodoEntity("t1", "Buy milk", false, "u1"), true);
+        when(todoRepository.updateDoneAll(anyCollection())).thenReturn(0L);
+        when(todoRepository.findAssignees(List.of("t1"))).thenReturn(Map.of());
+
+        // Act
+        writeBehind.flushAll();
+
+        // Assert
+        assertEquals(0, meterRegistry.get("todos.write_behind.pending").gauge().value());
+        assertEquals(0, meterRegistry.get("todos.write_behind.lag").timer().count());
+        assertEquals(1, meterRegistry.get("todos.write_behind.toggles").tag("result", "dropped").counter().count());
+    }
+}